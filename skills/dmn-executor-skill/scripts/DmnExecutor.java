@@ -1,31 +1,111 @@
 ///usr/bin/env jbang "$0" "$@" ; exit $?
 //JAVA 17+
+//CDS
 //DEPS org.kie:bom:10.1.0@pom
 //DEPS org.kie:kie-dmn-api:10.1.0
 //DEPS org.kie:kie-dmn-core:10.1.0
 //DEPS org.slf4j:slf4j-simple:2.0.9
 //DEPS com.fasterxml.jackson.core:jackson-databind:2.17.0
 //DEPS com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.17.0
+//DEPS com.fasterxml.jackson.dataformat:jackson-dataformat-csv:2.17.0
+//DEPS org.hdrhistogram:HdrHistogram:2.2.2
 
 import org.kie.dmn.api.core.*;
 import org.kie.dmn.api.core.ast.*;
+import org.kie.dmn.api.core.event.*;
+import org.kie.dmn.api.marshalling.DMNExtensionRegister;
+import org.kie.dmn.core.api.DMNExpressionEvaluator;
+import org.kie.dmn.core.ast.BusinessKnowledgeModelNodeImpl;
+import org.kie.dmn.core.ast.DMNBaseNode;
+import org.kie.dmn.core.ast.DMNDTExpressionEvaluator;
+import org.kie.dmn.core.ast.DMNLiteralExpressionEvaluator;
+import org.kie.dmn.core.ast.DecisionNodeImpl;
+import org.kie.dmn.core.compiler.DMNProfile;
+import org.kie.dmn.core.compiler.DRGElementCompiler;
+import org.kie.dmn.core.impl.BaseDMNTypeImpl;
+import org.kie.dmn.core.impl.DMNResultImpl;
 import org.kie.dmn.core.internal.utils.DMNRuntimeBuilder;
+import org.kie.dmn.feel.parser.feel11.profiles.DoCompileFEELProfile;
+import org.kie.dmn.feel.lang.Type;
+import org.kie.dmn.model.api.DMNElementReference;
+import org.kie.dmn.model.api.DMNModelInstrumentedBase;
+import org.kie.dmn.model.api.DecisionRule;
+import org.kie.dmn.model.api.DecisionTable;
+import org.kie.dmn.model.api.DecisionService;
+import org.kie.dmn.model.api.FunctionDefinition;
+import org.kie.dmn.model.api.FunctionKind;
+import org.kie.dmn.model.api.LiteralExpression;
+import org.kie.dmn.model.api.UnaryTests;
+import org.kie.dmn.feel.lang.types.BuiltInType;
+import org.kie.dmn.feel.runtime.FEELFunction;
+import org.kie.dmn.feel.runtime.decisiontables.DTDecisionRule;
+import org.kie.dmn.feel.runtime.decisiontables.DecisionTableImpl;
+import org.kie.dmn.feel.runtime.functions.DTInvokerFunction;
 import org.kie.api.io.Resource;
 import org.kie.api.io.ResourceType;
 import org.kie.internal.io.ResourceFactory;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
+import org.HdrHistogram.Histogram;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import com.sun.management.ThreadMXBean;
+
 import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.*;
 
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
 public class DmnExecutor {
 
     private static final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private static final Metrics metrics = new Metrics();
+    private static final CsvMapper csvMapper = new CsvMapper();
+    // Set by batch and serve when --result-cache is given
+    private static volatile ResultCache resultCache;
+    private static volatile ModelRegistry registry;
 
     public static void main(String... args) throws Exception {
         if (args.length < 1) {
@@ -38,7 +118,12 @@ public class DmnExecutor {
         switch (command) {
             case "execute" -> executeDecision(args);
             case "service" -> executeDecisionService(args);
+            case "batch" -> executeBatch(args);
             case "info" -> showModelInfo(args);
+            case "serve" -> serve(args);
+            case "bench" -> benchmark(args);
+            case "session" -> runSession(args);
+            case "replay" -> replay(args);
             case "help" -> printUsage();
             default -> {
                 System.err.println("Unknown command: " + command);
@@ -56,12 +141,7 @@ public class DmnExecutor {
             System.exit(1);
         }
 
-        Map<String, Object> inputContext = mapper.readValue(
-            parsed.inputJson, 
-            new TypeReference<Map<String, Object>>() {}
-        );
-
-        DMNRuntime runtime = createRuntime(parsed.mainDmnFile, parsed.importPaths, parsed.autoImport, parsed.runtimeTypeCheck);
+        DMNRuntime runtime = createRuntime(parsed);
         DMNModel model = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
 
         if (model == null) {
@@ -74,20 +154,59 @@ public class DmnExecutor {
             System.exit(1);
         }
 
+        Map<String, Object> inputContext = readInput(model, parsed.inputJson, parsed.decisionName, parsed.serviceName);
+        EvaluationProfiler profiler = parsed.profile ? EvaluationProfiler.attach(runtime) : null;
+        DMNResult result = evaluate(runtime, model, inputContext, parsed.decisionName, parsed.serviceName);
+        outputResult(result, inputContext, profiler, parsed.compact);
+    }
+
+    private static Map<String, Object> readInput(DMNModel model, String inputJson) throws IOException {
+        return InputBinder.forModel(model).read(inputJson, null);
+    }
+
+    // Binds only what the decision or service can read; everything for evaluateAll
+    private static Map<String, Object> readInput(DMNModel model, String inputJson,
+                                                 String decisionName, String serviceName) throws IOException {
+        Set<String> required = Requirements.forModel(model).inputsFor(decisionName, serviceName);
+        return InputBinder.forModel(model).read(inputJson, required);
+    }
+
+    private static DMNResult evaluate(DMNRuntime runtime, DMNModel model, Map<String, Object> inputContext,
+                                      String decisionName, String serviceName) {
+        return evaluate(runtime, model, inputContext, decisionName, serviceName,
+            Requirements.forModel(model).inputsFor(decisionName, serviceName), model.getName());
+    }
+
+    // required: the target's inputs (null: any); metricsModel labels the evaluation in metrics
+    private static DMNResult evaluate(DMNRuntime runtime, DMNModel model, Map<String, Object> inputContext,
+                                      String decisionName, String serviceName, Set<String> required,
+                                      String metricsModel) {
+        long start = System.nanoTime();
+        DMNResult result = null;
+        try {
+            ResultCache cache = resultCache;
+            result = cache != null
+                ? cache.evaluate(runtime, model, inputContext, decisionName, serviceName, required)
+                : evaluateUncached(runtime, model, inputContext, decisionName, serviceName);
+            return result;
+        } finally {
+            metrics.recordEvaluation(metricsModel, decisionName, serviceName, System.nanoTime() - start, result);
+        }
+    }
+
+    private static DMNResult evaluateUncached(DMNRuntime runtime, DMNModel model, Map<String, Object> inputContext,
+                                              String decisionName, String serviceName) {
+        // DMNContext is not thread-safe: always create a fresh one per evaluation
         DMNContext context = runtime.newContext();
         inputContext.forEach(context::set);
 
-        DMNResult result;
-        if (parsed.serviceName != null && !parsed.serviceName.isEmpty()) {
+        if (serviceName != null && !serviceName.isEmpty()) {
             // Execute via Decision Service
-            result = runtime.evaluateDecisionService(model, context, parsed.serviceName);
-        } else if (parsed.decisionName != null && !parsed.decisionName.isEmpty()) {
-            result = runtime.evaluateByName(model, context, parsed.decisionName);
-        } else {
-            result = runtime.evaluateAll(model, context);
+            return runtime.evaluateDecisionService(model, context, serviceName);
+        } else if (decisionName != null && !decisionName.isEmpty()) {
+            return runtime.evaluateByName(model, context, decisionName);
         }
-
-        outputResult(result, inputContext);
+        return runtime.evaluateAll(model, context);
     }
 
     private static void executeDecisionService(String[] args) throws Exception {
@@ -103,12 +222,7 @@ public class DmnExecutor {
             System.exit(1);
         }
 
-        Map<String, Object> inputContext = mapper.readValue(
-            parsed.inputJson, 
-            new TypeReference<Map<String, Object>>() {}
-        );
-
-        DMNRuntime runtime = createRuntime(parsed.mainDmnFile, parsed.importPaths, parsed.autoImport, parsed.runtimeTypeCheck);
+        DMNRuntime runtime = createRuntime(parsed);
         DMNModel model = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
 
         if (model == null) {
@@ -116,113 +230,550 @@ public class DmnExecutor {
             System.exit(1);
         }
 
-        // Verify decision service exists
-        var decisionService = model.getDecisionServices().stream()
-            .filter(ds -> ds.getName().equals(parsed.serviceName))
-            .findFirst()
-            .orElse(null);
+        String serviceError = checkDecisionService(model, parsed.serviceName);
+        if (serviceError != null) {
+            outputError(serviceError);
+            System.exit(1);
+        }
 
-        if (decisionService == null) {
-            List<String> available = model.getDecisionServices().stream()
-                .map(DMNNode::getName)
-                .toList();
-            outputError("Decision service '" + parsed.serviceName + "' not found. Available: " + available);
+        Map<String, Object> inputContext = readInput(model, parsed.inputJson, null, parsed.serviceName);
+        EvaluationProfiler profiler = parsed.profile ? EvaluationProfiler.attach(runtime) : null;
+        DMNResult result = evaluate(runtime, model, inputContext, null, parsed.serviceName);
+        outputResult(result, inputContext, profiler, parsed.compact);
+    }
+
+    /** Error message listing the model's decisions, for a decision name that does not exist. */
+    private static String checkDecision(DMNModel model, String decisionName) {
+        List<String> available = model.getDecisions().stream()
+            .map(DMNNode::getName)
+            .toList();
+        return "Decision '" + decisionName + "' not found. Available: " + available;
+    }
+
+    /**
+     * Verify a decision service exists in the model.
+     * Returns an error message listing the available services, or null if found.
+     */
+    private static String checkDecisionService(DMNModel model, String serviceName) {
+        boolean found = model.getDecisionServices().stream()
+            .anyMatch(ds -> ds.getName().equals(serviceName));
+        if (found) {
+            return null;
+        }
+        List<String> available = model.getDecisionServices().stream()
+            .map(DMNNode::getName)
+            .toList();
+        return "Decision service '" + serviceName + "' not found. Available: " + available;
+    }
+
+    /**
+     * Evaluate newline-delimited JSON records against one compiled model.
+     * Records are read and written one line at a time, so memory stays flat
+     * regardless of input size. Failing records produce an error line and
+     * do not stop the batch.
+     */
+    private static void executeBatch(String[] args) throws Exception {
+        ParsedArgs parsed = parseArgs(args);
+
+        if (parsed.mainDmnFile == null) {
+            System.err.println("Error: DMN file path required");
             System.exit(1);
         }
 
-        DMNContext context = runtime.newContext();
-        inputContext.forEach(context::set);
+        if (parsed.format != null && !parsed.format.equals("csv") && !parsed.format.equals("ndjson")) {
+            System.err.println("Error: unknown format '" + parsed.format + "'. Use ndjson or csv");
+            System.exit(1);
+        }
+
+        DMNRuntime runtime = createRuntime(parsed);
+        DMNModel model = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
+
+        if (model == null) {
+            outputError("Could not find main DMN model");
+            System.exit(1);
+        }
+
+        if (model.hasErrors()) {
+            outputErrors(model.getMessages());
+            System.exit(1);
+        }
+
+        if (parsed.serviceName != null) {
+            String serviceError = checkDecisionService(model, parsed.serviceName);
+            if (serviceError != null) {
+                outputError(serviceError);
+                System.exit(1);
+            }
+        }
+
+        PreparedTarget target = PreparedTarget.prepare(runtime, model, parsed.decisionName, parsed.serviceName);
+        EvaluationProfiler profiler = parsed.profile ? EvaluationProfiler.attach(runtime) : null;
+        resultCache = ResultCache.fromArgs(parsed);
+        // Long batch runs can be watched through JMX
+        metrics.registerMBeans();
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader in = openInput(parsed.inputFile)) {
+            if (isCsv(parsed)) {
+                evaluateCsv(in, out, target, parsed);
+            } else {
+                long[] lineNo = {0};
+                processRecords(() -> {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        long recordNo = ++lineNo[0];
+                        if (!line.isBlank()) {
+                            String record = line;
+                            return () -> evaluateRecord(target, record, recordNo);
+                        }
+                    }
+                    return null;
+                }, record -> {
+                    out.write(record);
+                    out.newLine();
+                }, parsed);
+            }
+        }
+        out.flush();
+
+        // Aggregated profile and cache statistics go to stderr so stdout stays pure NDJSON
+        if (profiler != null) {
+            System.err.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(Map.of("profile", profiler.snapshot())));
+        }
+        if (resultCache != null) {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("hits", metrics.getResultCacheHits());
+            stats.put("misses", metrics.getResultCacheMisses());
+            stats.put("bypassed", metrics.getResultCacheBypassed());
+            stats.put("entries", resultCache.size());
+            System.err.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(Map.of("resultCache", stats)));
+        }
+    }
+
+    /** Supplies batch records one at a time as evaluation tasks; null once input is exhausted. */
+    interface RecordSource<T> {
+        Callable<T> next() throws IOException;
+    }
 
-        DMNResult result = runtime.evaluateDecisionService(model, context, parsed.serviceName);
-        outputResult(result, inputContext);
+    interface RecordSink<T> {
+        void write(T record) throws IOException;
     }
 
-    private static Object sanitizeValue(Object value) {
-        if (value == null) return null;
+    /**
+     * Evaluate records from {@code source} and hand the results to {@code sink}, on the
+     * calling thread or, with --parallel, fanned out across worker threads sharing the
+     * one runtime. At most {@code parallel * 4} records are in flight: once the window is
+     * full the reader blocks on the next result before reading more, which bounds memory.
+     * Results are written in input order unless --unordered is given, in which case
+     * they are written as they complete.
+     */
+    private static <T> void processRecords(RecordSource<T> source, RecordSink<T> sink, ParsedArgs parsed) throws Exception {
+        Callable<T> task;
+        if (parsed.parallel <= 1) {
+            while ((task = source.next()) != null) {
+                sink.write(task.call());
+            }
+            return;
+        }
+
+        ExecutorService workers = Executors.newFixedThreadPool(parsed.parallel);
+        CompletionService<T> completion = new ExecutorCompletionService<>(workers);
+        Deque<Future<T>> inFlight = new ArrayDeque<>();
+        int window = parsed.parallel * 4;
+        int pending = 0;
+
+        try {
+            while ((task = source.next()) != null) {
+                if (parsed.ordered) {
+                    inFlight.add(workers.submit(task));
+                } else {
+                    completion.submit(task);
+                }
+                if (++pending >= window) {
+                    writeNext(sink, parsed.ordered ? inFlight.poll() : completion.take());
+                    pending--;
+                }
+            }
+            while (pending-- > 0) {
+                writeNext(sink, parsed.ordered ? inFlight.poll() : completion.take());
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    private static <T> void writeNext(RecordSink<T> sink, Future<T> next) throws Exception {
+        try {
+            sink.write(next.get());
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    private static boolean isCsv(ParsedArgs parsed) {
+        if (parsed.format != null) {
+            return parsed.format.equals("csv");
+        }
+        return parsed.inputFile != null && parsed.inputFile.toLowerCase().endsWith(".csv");
+    }
+
+    /**
+     * Tabular batch: the header row names model inputs, either directly ("Amount") or as
+     * a dotted path into a structured input ("Customer.age"). Each row is echoed with
+     * one column per output decision appended, plus an "errors" column. Rows are read
+     * and written as a stream, so table size does not affect memory.
+     */
+    private static void evaluateCsv(BufferedReader in, BufferedWriter out, PreparedTarget target,
+                                    ParsedArgs parsed) throws Exception {
+        MappingIterator<String[]> rows = csvMapper.readerFor(String[].class)
+            .with(CsvParser.Feature.WRAP_AS_ARRAY)
+            .readValues(in);
+        if (!rows.hasNext()) {
+            return;
+        }
+
+        String[] header = rows.next();
+        InputBinder binder = target.binder;
+        Set<String> required = target.requiredInputs;
+        List<List<String>> paths = new ArrayList<>();
+        List<Function<String, Object>> cellReaders = new ArrayList<>();
+        for (String column : header) {
+            List<String> path = binder.hasInput(column) ? List.of(column) : List.of(column.split("\\."));
+            paths.add(path);
+            // Columns the target never reads are echoed but not converted
+            cellReaders.add(required == null || required.contains(path.get(0)) ? binder.cellReader(path) : null);
+        }
+        List<String> outputs = target.outputDecisions;
 
-        // Skip DMN internal objects that cause circular references
-        String className = value.getClass().getName();
-        if (className.contains("org.kie.dmn") &&
-            (className.contains("Function") || className.contains("DecisionService"))) {
-            return "[DMN " + value.getClass().getSimpleName() + "]";
+        String[] outputHeader = Arrays.copyOf(header, header.length + outputs.size() + 1);
+        for (int i = 0; i < outputs.size(); i++) {
+            outputHeader[header.length + i] = outputs.get(i);
         }
+        outputHeader[outputHeader.length - 1] = "errors";
 
-        // Handle collections
-        if (value instanceof Map) {
-            Map<String, Object> sanitized = new LinkedHashMap<>();
-            ((Map<?, ?>) value).forEach((k, v) -> {
-                Object sanitizedValue = sanitizeValue(v);
-                if (sanitizedValue != null && !sanitizedValue.toString().startsWith("[DMN ")) {
-                    sanitized.put(k.toString(), sanitizedValue);
+        try (SequenceWriter writer = csvMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET).writeValues(out)) {
+            writer.write(outputHeader);
+            long[] rowNo = {1};
+            long[] failedAt = {-1, -1};  // char offset and line of the last malformed row
+            processRecords(() -> {
+                String[] cells;
+                while (true) {
+                    try {
+                        if (!rows.hasNext()) {
+                            return null;
+                        }
+                        cells = rows.next();
+                        break;
+                    } catch (RuntimeException e) {
+                        // A malformed row; the iterator resyncs at the next one unless the reader is stuck
+                        JsonLocation at = rows.getParser().currentLocation();
+                        if (at.getCharOffset() == failedAt[0]) {
+                            throw e;
+                        }
+                        failedAt[0] = at.getCharOffset();
+                        if (at.getLineNr() == failedAt[1]) {
+                            continue;  // the rest of a row already reported
+                        }
+                        failedAt[1] = at.getLineNr();
+                        String[] row = new String[outputHeader.length];
+                        Arrays.fill(row, "");
+                        row[row.length - 1] = "Row " + ++rowNo[0] + ": invalid CSV: " + csvError(e);
+                        return () -> row;
+                    }
                 }
-            });
-            return sanitized;
+                String[] record = cells;
+                long recordNo = ++rowNo[0];
+                return () -> evaluateCsvRow(target, header.length, paths, cellReaders, outputs, record, recordNo);
+            }, writer::write, parsed);
+        }
+    }
+
+    // The parser's own message, without Jackson's location and reference-chain suffixes
+    private static String csvError(Throwable e) {
+        while (e.getCause() != null && !(e instanceof JsonParseException)) {
+            e = e.getCause();
         }
+        return e instanceof JsonProcessingException json ? json.getOriginalMessage() : e.getMessage();
+    }
 
-        if (value instanceof List) {
-            return ((List<?>) value).stream()
-                .map(DmnExecutor::sanitizeValue)
-                .filter(v -> v != null && !v.toString().startsWith("[DMN "))
-                .toList();
+    private static String[] evaluateCsvRow(PreparedTarget target, int columns, List<List<String>> paths, List<Function<String, Object>> cellReaders,
+                                           List<String> outputs, String[] cells, long rowNo) {
+        String[] row = Arrays.copyOf(cells, columns + outputs.size() + 1);
+        Arrays.fill(row, Math.min(cells.length, columns), row.length, "");
+
+        Map<String, Object> inputContext = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(cells.length, columns); i++) {
+            if (!cells[i].isEmpty() && cellReaders.get(i) != null) {
+                putPath(inputContext, paths.get(i), cellReaders.get(i).apply(cells[i]));
+            }
+        }
+
+        try {
+            DMNResult result = target.evaluate(inputContext);
+            for (int i = 0; i < outputs.size(); i++) {
+                DMNDecisionResult decision = result.getDecisionResultByName(outputs.get(i));
+                row[columns + i] = decision != null ? csvCell(decision.getResult()) : "";
+            }
+            row[row.length - 1] = result.getMessages(DMNMessage.Severity.ERROR).stream()
+                .map(DMNMessage::getText)
+                .collect(Collectors.joining("; "));
+        } catch (RuntimeException e) {
+            row[row.length - 1] = "Row " + rowNo + ": evaluation failed: " + e.getMessage();
         }
+        return row;
+    }
 
-        return value;
+    @SuppressWarnings("unchecked")
+    private static void putPath(Map<String, Object> context, List<String> path, Object value) {
+        for (String name : path.subList(0, path.size() - 1)) {
+            Object nested = context.computeIfAbsent(name, k -> new LinkedHashMap<String, Object>());
+            if (!(nested instanceof Map)) {
+                return;  // a whole-value column for the same input takes precedence
+            }
+            context = (Map<String, Object>) nested;
+        }
+        context.put(path.get(path.size() - 1), value);
     }
 
-    private static void outputResult(DMNResult result, Map<String, Object> inputContext) throws Exception {
-        Map<String, Object> output = new LinkedHashMap<>();
-        output.put("success", !result.hasErrors());
+    private static String csvCell(Object value) {
+        if (value == null || value instanceof FEELFunction) {
+            return "";
+        }
+        if (value instanceof BigDecimal number) {
+            return number.toPlainString();
+        }
+        if (value instanceof Map || value instanceof List) {
+            StringWriter json = new StringWriter();
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(json)) {
+                writeValue(gen, value);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return json.toString();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Incremental what-if evaluation: each input line is a partial input object merged
+     * into the session's current input, and only the decisions that depend on a changed
+     * field are re-evaluated (see IncrementalSession). Writes one compact result per line,
+     * with the decisions re-evaluated for that update listed under "reevaluated".
+     */
+    private static void runSession(String[] args) throws Exception {
+        ParsedArgs parsed = parseArgs(args);
+
+        if (parsed.mainDmnFile == null) {
+            System.err.println("Error: DMN file path required");
+            System.exit(1);
+        }
+
+        DMNRuntime runtime = createRuntime(parsed);
+        DMNModel model = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
+
+        if (model == null) {
+            outputError("Could not find main DMN model");
+            System.exit(1);
+        }
+
+        if (model.hasErrors()) {
+            outputErrors(model.getMessages());
+            System.exit(1);
+        }
+
+        IncrementalSession session = new IncrementalSession(runtime, model);
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+        try (BufferedReader in = openInput(parsed.inputFile)) {
+            String line;
+            long lineNo = 0;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String output;
+                try {
+                    DMNResult result = session.update(readInput(model, line));
+                    StringWriter json = new StringWriter();
+                    try (JsonGenerator gen = mapper.getFactory().createGenerator(json)) {
+                        writeResult(gen, result, session.inputs(), Map.of("reevaluated", session.reevaluated()));
+                    }
+                    output = json.toString();
+                } catch (IOException e) {
+                    output = mapper.writeValueAsString(buildError("Line " + lineNo + ": invalid input JSON: " + e.getMessage()));
+                } catch (RuntimeException e) {
+                    output = mapper.writeValueAsString(buildError("Line " + lineNo + ": evaluation failed: " + e.getMessage()));
+                }
+                out.write(output);
+                out.newLine();
+                // Interactive callers wait for each answer
+                out.flush();
+            }
+        }
+    }
+
+    private static BufferedReader openInput(String inputFile) throws IOException {
+        if (inputFile == null || "-".equals(inputFile)) {
+            return new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8), 1 << 16);
+        }
+        return Files.newBufferedReader(Path.of(inputFile), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Evaluate a single NDJSON record and render it as one compact JSON line.
+     */
+    private static String evaluateRecord(PreparedTarget target, String line, long lineNo) throws IOException {
+        Map<String, Object> error;
+        try {
+            Map<String, Object> inputContext = target.bind(line);
+            DMNResult result = target.evaluate(inputContext);
+            StringWriter json = new StringWriter();
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(json)) {
+                writeResult(gen, result, inputContext, Map.of());
+            }
+            return json.toString();
+        } catch (IOException e) {
+            error = buildError("Line " + lineNo + ": invalid input JSON: " + e.getMessage());
+        } catch (RuntimeException e) {
+            error = buildError("Line " + lineNo + ": evaluation failed: " + e.getMessage());
+        }
+        return mapper.writeValueAsString(error);
+    }
+
+    private static void outputResult(DMNResult result, Map<String, Object> inputContext,
+                                     EvaluationProfiler profiler, boolean compact) throws Exception {
+        JsonGenerator gen = mapper.getFactory().createGenerator(System.out)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (!compact) {
+            gen.useDefaultPrettyPrinter();
+        }
+        writeResult(gen, result, inputContext,
+            profiler != null ? Map.of("profile", profiler.snapshot()) : Map.of());
+        gen.close();
+        System.out.println();
+    }
+
+    private static byte[] resultBytes(DMNResult result, Map<String, Object> inputContext) throws IOException {
+        ByteArrayOutputStream json = new ByteArrayOutputStream(1024);
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(json)) {
+            writeResult(gen, result, inputContext, Map.of());
+        }
+        return json.toByteArray();
+    }
+
+    /**
+     * Streams an evaluation result as {success, errors?, decisions, results, ...extras}.
+     * Values are written while they are walked, without copying them into intermediate
+     * maps. DMN function values (BKMs and decision services, which reference the model
+     * graph) are recognised by type: a decision whose result is one is rendered as
+     * "[DMN <class>]", and they are left out of "results" and nested structures.
+     */
+    private static void writeResult(JsonGenerator gen, DMNResult result, Map<String, Object> inputContext,
+                                    Map<String, Object> extras) throws IOException {
+        gen.writeStartObject();
+        gen.writeBooleanField("success", !result.hasErrors());
 
         if (result.hasErrors()) {
-            output.put("errors", result.getMessages().stream()
-                .filter(m -> m.getSeverity() == DMNMessage.Severity.ERROR)
-                .map(m -> Map.of(
-                    "message", m.getText(),
-                    "type", m.getMessageType().toString()
-                ))
-                .toList());
+            gen.writeArrayFieldStart("errors");
+            for (DMNMessage m : result.getMessages(DMNMessage.Severity.ERROR)) {
+                gen.writeStartObject();
+                gen.writeStringField("message", m.getText());
+                gen.writeStringField("type", m.getMessageType().toString());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
         }
 
-        // Extract decision results
-        Map<String, Object> decisions = new LinkedHashMap<>();
+        // Decision results
+        gen.writeObjectFieldStart("decisions");
         for (DMNDecisionResult dr : result.getDecisionResults()) {
-            Object sanitized = sanitizeValue(dr.getResult());
-            decisions.put(dr.getDecisionName(), Map.of(
-                "result", sanitized != null ? sanitized : "null",
-                "status", dr.getEvaluationStatus().toString()
-            ));
+            Object value = dr.getResult();
+            gen.writeObjectFieldStart(dr.getDecisionName());
+            gen.writeFieldName("result");
+            if (value == null) {
+                gen.writeString("null");
+            } else if (value instanceof FEELFunction) {
+                gen.writeString("[DMN " + value.getClass().getSimpleName() + "]");
+            } else {
+                writeValue(gen, value);
+            }
+            gen.writeStringField("status", dr.getEvaluationStatus().toString());
+            gen.writeEndObject();
         }
-        output.put("decisions", decisions);
+        gen.writeEndObject();
 
-        // Include flat results for easy access
-        Map<String, Object> results = new LinkedHashMap<>();
-        result.getContext().getAll().forEach((k, v) -> {
-            if (!inputContext.containsKey(k)) {
-                Object sanitized = sanitizeValue(v);
-                if (sanitized != null && !sanitized.toString().startsWith("[DMN ")) {
-                    results.put(k, sanitized);
-                }
+        // Flat results for easy access
+        gen.writeObjectFieldStart("results");
+        for (Map.Entry<String, Object> entry : result.getContext().getAll().entrySet()) {
+            if (!inputContext.containsKey(entry.getKey()) && isWritable(entry.getValue())) {
+                gen.writeFieldName(entry.getKey());
+                writeValue(gen, entry.getValue());
             }
-        });
-        output.put("results", results);
+        }
+        gen.writeEndObject();
 
-        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(output));
+        for (Map.Entry<String, Object> extra : extras.entrySet()) {
+            gen.writeFieldName(extra.getKey());
+            gen.writeObject(extra.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private static boolean isWritable(Object value) {
+        return value != null && !(value instanceof FEELFunction);
+    }
+
+    private static void writeValue(JsonGenerator gen, Object value) throws IOException {
+        if (value instanceof Map<?, ?> map) {
+            gen.writeStartObject();
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                if (isWritable(entry.getValue())) {
+                    gen.writeFieldName(String.valueOf(entry.getKey()));
+                    writeValue(gen, entry.getValue());
+                }
+            }
+            gen.writeEndObject();
+        } else if (value instanceof List<?> list) {
+            gen.writeStartArray();
+            for (Object item : list) {
+                if (isWritable(item)) {
+                    writeValue(gen, item);
+                }
+            }
+            gen.writeEndArray();
+        } else if (value instanceof String text) {
+            gen.writeString(text);
+        } else if (value instanceof BigDecimal number) {
+            gen.writeNumber(number);
+        } else if (value instanceof Boolean flag) {
+            gen.writeBoolean(flag);
+        } else {
+            // Dates, times, durations and anything else go through the mapper's serializers
+            gen.writeObject(value);
+        }
     }
 
     private static void outputError(String message) throws Exception {
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(buildError(message)));
+    }
+
+    private static Map<String, Object> buildError(String message) {
         Map<String, Object> errorResult = new HashMap<>();
         errorResult.put("success", false);
         errorResult.put("errors", List.of(message));
-        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(errorResult));
+        return errorResult;
     }
 
     private static void outputErrors(List<DMNMessage> messages) throws Exception {
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(buildErrors(messages)));
+    }
+
+    private static Map<String, Object> buildErrors(List<DMNMessage> messages) {
         Map<String, Object> errorResult = new HashMap<>();
         errorResult.put("success", false);
         errorResult.put("errors", messages.stream()
             .map(m -> m.getText())
             .toList());
-        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(errorResult));
+        return errorResult;
     }
 
     private static void showModelInfo(String[] args) throws Exception {
@@ -233,8 +784,22 @@ public class DmnExecutor {
             System.exit(1);
         }
 
-        DMNRuntime runtime = createRuntime(parsed.mainDmnFile, parsed.importPaths, parsed.autoImport, parsed.runtimeTypeCheck);
+        Set<Path> dmnFiles = resolveDmnFiles(parsed.mainDmnFile, parsed.importPaths, parsed.autoImport, parsed.modelName);
+        ModelCache cache = ModelCache.fromArgs(parsed);
+        String cacheKey = cache != null ? cache.key(dmnFiles, parsed) : null;
 
+        Map<String, Object> info = cache != null ? cache.read(cacheKey, "info.json") : null;
+        if (info == null) {
+            info = buildModelInfo(createRuntime(dmnFiles, parsed), parsed.compile);
+            if (cache != null) {
+                cache.write(cacheKey, "info.json", info);
+            }
+        }
+
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(info));
+    }
+
+    private static Map<String, Object> buildModelInfo(DMNRuntime runtime, boolean compiled) {
         Map<String, Object> output = new LinkedHashMap<>();
         
         List<Map<String, Object>> models = new ArrayList<>();
@@ -252,12 +817,16 @@ public class DmnExecutor {
                 .toList();
             info.put("inputs", inputs);
 
-            // Decisions
-            List<Map<String, String>> decisions = model.getDecisions().stream()
-                .map(d -> Map.of(
-                    "name", d.getName(),
-                    "type", d.getResultType() != null ? d.getResultType().getName() : "Any"
-                ))
+            // Decisions, with what each one transitively requires
+            Requirements requirements = Requirements.forModel(model);
+            List<Map<String, Object>> decisions = model.getDecisions().stream()
+                .map(d -> {
+                    Map<String, Object> decision = new LinkedHashMap<>();
+                    decision.put("name", d.getName());
+                    decision.put("type", d.getResultType() != null ? d.getResultType().getName() : "Any");
+                    decision.put("requires", requirements.forDecision(d.getName()).describe());
+                    return decision;
+                })
                 .toList();
             info.put("decisions", decisions);
 
@@ -306,7 +875,8 @@ public class DmnExecutor {
                             })
                             .toList());
                     }
-                    
+
+                    dsInfo.put("requires", requirements.forService(ds.getName()).describe());
                     return dsInfo;
                 })
                 .toList();
@@ -337,6 +907,17 @@ public class DmnExecutor {
                 info.put("businessKnowledgeModels", bkms);
             }
 
+            // Compiled vs interpreted execution per node (--compile)
+            if (compiled) {
+                info.put("compilation", buildCompilationReport(model));
+            }
+
+            // Which decision tables got a rule index (off with --no-index)
+            List<Map<String, Object>> tables = DecisionTableIndex.report(model);
+            if (!tables.isEmpty()) {
+                info.put("decisionTables", tables);
+            }
+
             // Check for errors
             if (model.hasErrors()) {
                 info.put("errors", model.getMessages().stream()
@@ -351,97 +932,3196 @@ public class DmnExecutor {
         output.put("modelsLoaded", models.size());
         output.put("models", models);
 
-        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(output));
+        return output;
     }
 
-    private static DMNModel findMainModel(DMNRuntime runtime, String mainDmnFile, String modelName) {
-        if (modelName != null && !modelName.isEmpty()) {
-            return runtime.getModels().stream()
-                .filter(m -> m.getName().equals(modelName))
-                .findFirst()
-                .orElse(null);
+    private static final String DEFAULT_BENCH_MODEL = "assets/greeting.dmn";
+    private static final String DEFAULT_BENCH_INPUT = "{\"Name\": \"World\", \"Hour\": 14}";
+
+    // The bundled sample model, next to the script's folder; JBang passes the script path as jbang.source
+    private static String defaultBenchModel() {
+        String source = System.getProperty("jbang.source");
+        Path scriptDir = source != null ? Path.of(source).toAbsolutePath().getParent() : null;
+        return scriptDir != null && scriptDir.getParent() != null
+            ? scriptDir.getParent().resolve(DEFAULT_BENCH_MODEL).toString()
+            : DEFAULT_BENCH_MODEL;
+    }
+
+    /**
+     * Measure model compile time and in-process evaluation throughput, latency and
+     * allocation for evaluateAll, evaluateByName (each decision) and
+     * evaluateDecisionService (each service), cycling over a sample input set.
+     * Timing happens inside one JVM so JBang/JVM startup does not distort results.
+     */
+    private static void benchmark(String[] args) throws Exception {
+        ParsedArgs parsed = parseArgs(args);
+
+        boolean defaultModel = parsed.mainDmnFile == null;
+        if (defaultModel) {
+            parsed.mainDmnFile = defaultBenchModel();
         }
-        
-        String fileName = Path.of(mainDmnFile).getFileName().toString();
-        String baseName = fileName.replace(".dmn", "").replace(".DMN", "");
-        
-        for (DMNModel model : runtime.getModels()) {
-            if (model.getName().equalsIgnoreCase(baseName)) {
-                return model;
+
+        List<String> samples = new ArrayList<>();
+        if (parsed.inputFile != null) {
+            try (BufferedReader in = openInput(parsed.inputFile)) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (!line.isBlank()) {
+                        samples.add(line);
+                    }
+                }
             }
+        } else if (defaultModel) {
+            samples.add(DEFAULT_BENCH_INPUT);
         }
-        
-        if (runtime.getModels().size() == 1) {
-            return runtime.getModels().get(0);
+        if (samples.isEmpty()) {
+            System.err.println("Error: sample input required (NDJSON file with one input object per line)");
+            System.exit(1);
         }
-        
-        return runtime.getModels().isEmpty() ? null : runtime.getModels().get(0);
-    }
 
-    private static DMNRuntime createRuntime(String mainDmnFile, List<String> importPaths, boolean autoImport, boolean runtimeTypeCheck) throws Exception {
-        // KIE DMN runtime input type checking (enabled by default).
-        // If disabled, the engine will be more permissive with input values.
-        if (!runtimeTypeCheck) {
-            System.setProperty("org.kie.dmn.runtime.typecheck", "false");
+        long start = System.nanoTime();
+        DMNRuntime runtime = createRuntime(parsed);
+        double compileMs = (System.nanoTime() - start) / 1e6;
+
+        // Second build in a warm JVM isolates model compilation from class loading
+        start = System.nanoTime();
+        createRuntime(parsed);
+        double recompileMs = (System.nanoTime() - start) / 1e6;
+
+        DMNModel model = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
+
+        if (model == null) {
+            outputError("Could not find main DMN model");
+            System.exit(1);
         }
-        Path mainPath = Path.of(mainDmnFile);
-        if (!Files.exists(mainPath)) {
-            throw new FileNotFoundException("DMN file not found: " + mainDmnFile);
+
+        if (model.hasErrors()) {
+            outputErrors(model.getMessages());
+            System.exit(1);
         }
 
-        Set<Path> dmnFiles = new LinkedHashSet<>();
-        dmnFiles.add(mainPath.toAbsolutePath());
-        
-        for (String importPath : importPaths) {
-            Path p = Path.of(importPath);
-            if (Files.isDirectory(p)) {
-                try (Stream<Path> walk = Files.walk(p, 1)) {
-                    walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn"))
-                        .map(Path::toAbsolutePath)
-                        .forEach(dmnFiles::add);
-                }
-            } else if (Files.exists(p)) {
-                dmnFiles.add(p.toAbsolutePath());
+        // Inputs are bound once up front so only evaluation is measured
+        List<Map<String, Object>> inputs = new ArrayList<>();
+        for (String sample : samples) {
+            inputs.add(readInput(model, sample));
+        }
+
+        List<Map<String, Object>> benchmarks = new ArrayList<>();
+        benchmarks.add(runBenchmark("evaluateAll", parsed, inputs,
+            PreparedTarget.prepare(runtime, model, null, null)::evaluate));
+
+        for (DecisionNode decision : model.getDecisions()) {
+            if (parsed.decisionName == null || parsed.decisionName.equals(decision.getName())) {
+                benchmarks.add(runBenchmark("evaluateByName:" + decision.getName(), parsed, inputs,
+                    PreparedTarget.prepare(runtime, model, decision.getName(), null)::evaluate));
             }
         }
-        
-        if (autoImport) {
-            Path parentDir = mainPath.toAbsolutePath().getParent();
-            if (parentDir != null) {
-                try (Stream<Path> walk = Files.list(parentDir)) {
-                    walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn"))
-                        .map(Path::toAbsolutePath)
-                        .forEach(dmnFiles::add);
-                }
+
+        for (DecisionServiceNode service : model.getDecisionServices()) {
+            if (parsed.serviceName == null || parsed.serviceName.equals(service.getName())) {
+                benchmarks.add(runBenchmark("evaluateDecisionService:" + service.getName(), parsed, inputs,
+                    PreparedTarget.prepare(runtime, model, null, service.getName())::evaluate));
             }
         }
 
-        List<Resource> resources = new ArrayList<>();
-        for (Path dmnFile : dmnFiles) {
-            Resource resource = ResourceFactory.newFileResource(dmnFile.toFile());
-            resource.setSourcePath(dmnFile.toString());
-            resource.setResourceType(ResourceType.DMN);
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("model", model.getName());
+        output.put("sampleInputs", inputs.size());
+        output.put("compileMs", round(compileMs));
+        output.put("recompileMs", round(recompileMs));
+        output.put("benchmarks", benchmarks);
+
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(output));
+    }
+
+    private static Map<String, Object> runBenchmark(String target, ParsedArgs parsed, List<Map<String, Object>> inputs,
+                                                    Function<Map<String, Object>, DMNResult> evaluation) {
+        for (int i = 0; i < parsed.warmup; i++) {
+            evaluation.apply(inputs.get(i % inputs.size()));
+        }
+
+        ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long[] latencies = new long[parsed.iterations];
+        long errors = 0;
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < parsed.iterations; i++) {
+            long t0 = System.nanoTime();
+            DMNResult result = evaluation.apply(inputs.get(i % inputs.size()));
+            latencies[i] = System.nanoTime() - t0;
+            if (result.hasErrors()) {
+                errors++;
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("target", target);
+        stats.put("iterations", parsed.iterations);
+        stats.put("evalsPerSec", round(parsed.iterations / (elapsed / 1e9)));
+        stats.put("meanUs", round(elapsed / 1e3 / parsed.iterations));
+        stats.put("p50Us", round(percentile(latencies, 0.50) / 1e3));
+        stats.put("p99Us", round(percentile(latencies, 0.99) / 1e3));
+        stats.put("allocBytesPerEval", allocated / parsed.iterations);
+        if (errors > 0) {
+            stats.put("errors", errors);
+        }
+        return stats;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * Replay recorded inputs against a model at a target rate or flat out, on --parallel
+     * workers, and report throughput, latency percentiles (HdrHistogram), errors by
+     * DMNMessage type and GC/allocation figures. With --rate, latency is measured from
+     * each evaluation's scheduled start, so time spent queued behind slow evaluations
+     * counts (no coordinated omission). With --compare, a second model file is replayed
+     * the same way and every record's decision results are diffed between the two.
+     */
+    private static void replay(String[] args) throws Exception {
+        ParsedArgs parsed = parseArgs(args);
+
+        if (parsed.mainDmnFile == null || parsed.inputFile == null) {
+            System.err.println("Error: DMN file and recorded input (NDJSON) required");
+            System.exit(1);
+        }
+
+        PreparedTarget baseline = loadReplayTarget(parsed.mainDmnFile, parsed);
+        PreparedTarget candidate = parsed.compareDmnFile != null ? loadReplayTarget(parsed.compareDmnFile, parsed) : null;
+
+        // Inputs are bound once up front so only evaluation is measured
+        List<Map<String, Object>> inputs = new ArrayList<>();
+        List<Map<String, Object>> candidateInputs = new ArrayList<>();
+        List<Long> recordNumbers = new ArrayList<>();
+        long lineNo = 0;
+        int invalid = 0;
+        try (BufferedReader in = openInput(parsed.inputFile)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNo++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    Map<String, Object> input = baseline.bind(line);
+                    Map<String, Object> candidateInput = candidate != null ? candidate.bind(line) : null;
+                    inputs.add(input);
+                    candidateInputs.add(candidateInput);
+                    recordNumbers.add(lineNo);
+                } catch (IOException e) {
+                    invalid++;
+                }
+            }
+        }
+        if (inputs.isEmpty()) {
+            System.err.println("Error: no valid input records in " + parsed.inputFile);
+            System.exit(1);
+        }
+
+        // Untimed diff pass over every record; it also warms up both models
+        long differing = 0;
+        List<Map<String, Object>> differences = new ArrayList<>();
+        if (candidate != null) {
+            for (int i = 0; i < inputs.size(); i++) {
+                if (diffResults(recordNumbers.get(i), baseline.evaluate(inputs.get(i)),
+                        candidate.evaluate(candidateInputs.get(i)), differences)) {
+                    differing++;
+                }
+            }
+        }
+
+        Map<String, Object> output = new LinkedHashMap<>();
+        output.put("model", baseline.model.getName());
+        output.put("target", parsed.serviceName != null ? "evaluateDecisionService:" + parsed.serviceName
+            : parsed.decisionName != null ? "evaluateByName:" + parsed.decisionName : "evaluateAll");
+        output.put("records", inputs.size());
+        if (invalid > 0) {
+            output.put("invalidRecords", invalid);
+        }
+        output.putAll(runReplay(baseline, inputs, parsed));
+
+        if (candidate != null) {
+            Map<String, Object> comparison = new LinkedHashMap<>();
+            comparison.put("model", candidate.model.getName());
+            comparison.put("file", parsed.compareDmnFile);
+            comparison.putAll(runReplay(candidate, candidateInputs, parsed));
+            comparison.put("differingRecords", differing);
+            comparison.put("differences", differences.subList(0, Math.min(differences.size(), MAX_REPORTED_DIFFERENCES)));
+            output.put("compare", comparison);
+        }
+
+        System.out.println(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(output));
+    }
+
+    /**
+     * One timed run: --warmup unmeasured evaluations, then --loops passes over the inputs
+     * shared by --parallel workers, each evaluation started no earlier than its slot in
+     * the --rate schedule. Workers claim evaluation numbers from one counter and record
+     * into their own histograms, merged at the end.
+     */
+    private static Map<String, Object> runReplay(PreparedTarget target, List<Map<String, Object>> inputs,
+                                                 ParsedArgs parsed) throws Exception {
+        for (int i = 0; i < parsed.warmup; i++) {
+            target.evaluate(inputs.get(i % inputs.size()));
+        }
+
+        long total = (long) inputs.size() * parsed.loops;
+        long intervalNanos = parsed.rate > 0 ? Math.round(1e9 / parsed.rate) : 0;
+        int workers = Math.max(1, parsed.parallel);
+        AtomicLong next = new AtomicLong();
+        ReplayStats[] stats = new ReplayStats[workers];
+
+        Map<String, long[]> gcBefore = gcCounters();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        List<Future<?>> running = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int w = 0; w < workers; w++) {
+            ReplayStats own = stats[w] = new ReplayStats();
+            running.add(pool.submit(() -> {
+                ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long threadId = Thread.currentThread().getId();
+                long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+                long n;
+                while ((n = next.getAndIncrement()) < total) {
+                    long scheduled = intervalNanos > 0 ? start + n * intervalNanos : System.nanoTime();
+                    long wait;
+                    while ((wait = scheduled - System.nanoTime()) > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+                    own.record(target, inputs.get((int) (n % inputs.size())), scheduled);
+                }
+                own.allocatedBytes = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> worker : running) {
+                worker.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        Map<String, long[]> gcAfter = gcCounters();
+
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("evaluations", total);
+        run.put("concurrency", workers);
+        if (parsed.rate > 0) {
+            run.put("targetRate", parsed.rate);
+        }
+        run.put("durationMs", round(elapsed / 1e6));
+        run.put("evalsPerSec", round(total / (elapsed / 1e9)));
+        run.putAll(ReplayStats.summarize(stats, total, parsed.rate > 0));
+
+        Map<String, Object> gc = new LinkedHashMap<>();
+        gcAfter.forEach((name, after) -> {
+            long[] before = gcBefore.getOrDefault(name, new long[2]);
+            gc.put(name, Map.of("collections", after[0] - before[0], "timeMs", after[1] - before[1]));
+        });
+        run.put("gc", gc);
+        return run;
+    }
+
+    private static final int MAX_REPORTED_DIFFERENCES = 20;
+
+    // Collection count and accumulated time (ms) per garbage collector
+    private static Map<String, long[]> gcCounters() {
+        Map<String, long[]> counters = new LinkedHashMap<>();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            counters.put(gc.getName(), new long[] {gc.getCollectionCount(), gc.getCollectionTime()});
+        }
+        return counters;
+    }
+
+    /**
+     * Add one entry per decision whose status or value differs between the two results.
+     * Numbers compare by value, so 1.0 and 1.00 are equal. Returns whether any differed.
+     */
+    private static boolean diffResults(long record, DMNResult result, DMNResult compared,
+                                       List<Map<String, Object>> differences) {
+        Map<String, DMNDecisionResult> byName = new LinkedHashMap<>();
+        for (DMNDecisionResult decision : compared.getDecisionResults()) {
+            byName.put(decision.getDecisionName(), decision);
+        }
+        boolean differs = false;
+        for (DMNDecisionResult decision : result.getDecisionResults()) {
+            DMNDecisionResult other = byName.remove(decision.getDecisionName());
+            if (other == null || other.getEvaluationStatus() != decision.getEvaluationStatus()
+                    || !sameValue(decision.getResult(), other.getResult())) {
+                differences.add(difference(record, decision.getDecisionName(), decision, other));
+                differs = true;
+            }
+        }
+        for (DMNDecisionResult other : byName.values()) {
+            differences.add(difference(record, other.getDecisionName(), null, other));
+            differs = true;
+        }
+        return differs;
+    }
+
+    private static Map<String, Object> difference(long record, String decision, DMNDecisionResult result,
+                                                  DMNDecisionResult compared) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("record", record);
+        entry.put("decision", decision);
+        entry.put("result", result != null ? result.getResult() : null);
+        entry.put("status", result != null ? result.getEvaluationStatus().toString() : null);
+        entry.put("compareResult", compared != null ? compared.getResult() : null);
+        entry.put("compareStatus", compared != null ? compared.getEvaluationStatus().toString() : null);
+        return entry;
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof BigDecimal x && b instanceof BigDecimal y) {
+            return x.compareTo(y) == 0;
+        } else if (a instanceof Map<?, ?> x && b instanceof Map<?, ?> y) {
+            return x.size() == y.size() && x.entrySet().stream()
+                .allMatch(e -> y.containsKey(e.getKey()) && sameValue(e.getValue(), y.get(e.getKey())));
+        } else if (a instanceof List<?> x && b instanceof List<?> y) {
+            if (x.size() != y.size()) {
+                return false;
+            }
+            for (int i = 0; i < x.size(); i++) {
+                if (!sameValue(x.get(i), y.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return Objects.equals(a, b);
+    }
+
+    // Compiles one model file for replay and prepares the -d/-s target on it
+    private static PreparedTarget loadReplayTarget(String dmnFile, ParsedArgs parsed) throws Exception {
+        DMNRuntime runtime = createRuntime(resolveDmnFiles(dmnFile, parsed.importPaths, parsed.autoImport,
+            parsed.modelName), parsed);
+        DMNModel model = findMainModel(runtime, dmnFile, parsed.modelName);
+        if (model == null) {
+            outputError("Could not find main DMN model in " + dmnFile);
+            System.exit(1);
+        }
+        if (model.hasErrors()) {
+            outputErrors(model.getMessages());
+            System.exit(1);
+        }
+        if (parsed.serviceName != null) {
+            String serviceError = checkDecisionService(model, parsed.serviceName);
+            if (serviceError != null) {
+                outputError(serviceError);
+                System.exit(1);
+            }
+        }
+        return PreparedTarget.prepare(runtime, model, parsed.decisionName, parsed.serviceName);
+    }
+
+    /** Per-worker replay figures, merged when the run ends. */
+    private static final class ReplayStats {
+        final Histogram latency = new Histogram(3);
+        final Histogram serviceTime = new Histogram(3);
+        final Map<String, Long> errorsByType = new TreeMap<>();
+        long failed;
+        long allocatedBytes;
+
+        // Evaluate and record; latency counts from the scheduled start, service time from the actual one
+        DMNResult record(PreparedTarget target, Map<String, Object> input, long scheduled) {
+            long begin = System.nanoTime();
+            DMNResult result = null;
+            try {
+                result = target.evaluate(input);
+            } catch (RuntimeException e) {
+                errorsByType.merge("EXCEPTION:" + e.getClass().getSimpleName(), 1L, Long::sum);
+            }
+            long end = System.nanoTime();
+            latency.recordValue(end - scheduled);
+            serviceTime.recordValue(end - begin);
+            if (result == null) {
+                failed++;
+            } else if (result.hasErrors()) {
+                failed++;
+                for (DMNMessage message : result.getMessages(DMNMessage.Severity.ERROR)) {
+                    errorsByType.merge(message.getMessageType().toString(), 1L, Long::sum);
+                }
+            }
+            return result;
+        }
+
+        static Map<String, Object> summarize(ReplayStats[] workers, long evaluations, boolean withServiceTime) {
+            Histogram latency = new Histogram(3);
+            Histogram serviceTime = new Histogram(3);
+            Map<String, Long> errorsByType = new TreeMap<>();
+            long failed = 0;
+            long allocated = 0;
+            for (ReplayStats worker : workers) {
+                latency.add(worker.latency);
+                serviceTime.add(worker.serviceTime);
+                worker.errorsByType.forEach((type, count) -> errorsByType.merge(type, count, Long::sum));
+                failed += worker.failed;
+                allocated += worker.allocatedBytes;
+            }
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("latencyUs", percentiles(latency));
+            if (withServiceTime) {
+                summary.put("serviceTimeUs", percentiles(serviceTime));
+            }
+            Map<String, Object> errors = new LinkedHashMap<>();
+            errors.put("failedEvaluations", failed);
+            errors.put("percent", round(failed * 100.0 / evaluations));
+            errors.put("byType", errorsByType);
+            summary.put("errors", errors);
+            if (allocated > 0) {
+                summary.put("allocBytesPerEval", allocated / evaluations);
+            }
+            return summary;
+        }
+
+        private static Map<String, Object> percentiles(Histogram histogram) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("min", round(histogram.getMinValue() / 1e3));
+            values.put("mean", round(histogram.getMean() / 1e3));
+            values.put("p50", round(histogram.getValueAtPercentile(50) / 1e3));
+            values.put("p90", round(histogram.getValueAtPercentile(90) / 1e3));
+            values.put("p99", round(histogram.getValueAtPercentile(99) / 1e3));
+            values.put("p99.9", round(histogram.getValueAtPercentile(99.9) / 1e3));
+            values.put("max", round(histogram.getMaxValue() / 1e3));
+            return values;
+        }
+    }
+
+    /**
+     * Long-running HTTP mode: the DMNRuntime is compiled once at startup and shared
+     * by all requests (it is thread-safe); each request gets its own DMNContext.
+     *
+     * Endpoints (input JSON in the request body, options as query parameters):
+     *   POST /execute?decision=<name>&service=<name>&model=<name>
+     *   POST /service?service=<name>&model=<name>
+     *   GET  /info
+     *   GET  /profile   (with --profile)
+     *   GET  /metrics   (Prometheus text format; the same metrics are also JMX MBeans)
+     *
+     * With --watch, model files are recompiled in the background on change and the new
+     * runtime replaces the old one only if every model compiles without errors.
+     */
+    private static void serve(String[] args) throws Exception {
+        ParsedArgs parsed = parseArgs(args);
+
+        if (parsed.registryDir != null) {
+            serveRegistry(parsed);
+            return;
+        }
+
+        if (parsed.mainDmnFile == null) {
+            System.err.println("Error: DMN file path required");
+            System.exit(1);
+        }
+
+        DMNRuntime runtime = createRuntime(parsed);
+        DMNModel mainModel = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
+
+        if (mainModel == null) {
+            outputError("Could not find main DMN model");
+            System.exit(1);
+        }
+
+        if (mainModel.hasErrors()) {
+            outputErrors(mainModel.getMessages());
+            System.exit(1);
+        }
+
+        // Model info is immutable for the lifetime of the runtime, so render it once
+        EvaluationProfiler profiler = parsed.profile ? EvaluationProfiler.attach(runtime) : null;
+        resultCache = ResultCache.fromArgs(parsed);
+        AtomicReference<ServedModel> current = new AtomicReference<>(
+            new ServedModel(runtime, parsed.mainDmnFile, mapper.writeValueAsBytes(buildModelInfo(runtime, parsed.compile))));
+
+        HttpServer server = createServer(parsed, profiler);
+
+        // Each request reads the snapshot once, so a reload never changes the model mid-evaluation
+        server.createContext("/execute", exchange -> handleEvaluation(exchange, current.get().targets, parsed, false));
+        server.createContext("/service", exchange -> handleEvaluation(exchange, current.get().targets, parsed, true));
+        server.createContext("/info", exchange -> {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, buildError("Method not allowed: " + exchange.getRequestMethod()));
+                return;
+            }
+            sendJson(exchange, 200, current.get().info);
+        });
+
+        if (parsed.watch) {
+            ModelWatcher.start(parsed, current, profiler);
+        }
+
+        server.start();
+        System.err.println("DMN Executor serving model '" + mainModel.getName() + "' on http://"
+            + parsed.host + ":" + server.getAddress().getPort() + " (" + parsed.threads + " threads"
+            + (parsed.watch ? ", watching for changes" : "") + ")");
+    }
+
+    /**
+     * serve --registry: every .dmn file under the registry directory is a model set,
+     * compiled on first request and evicted least-recently-used when the estimated heap
+     * of the loaded sets exceeds --memory-budget (see ModelRegistry).
+     */
+    private static void serveRegistry(ParsedArgs parsed) throws Exception {
+        Path root = Path.of(parsed.registryDir);
+        if (!Files.isDirectory(root)) {
+            System.err.println("Error: registry directory not found: " + parsed.registryDir);
+            System.exit(1);
+        }
+
+        EvaluationProfiler profiler = parsed.profile ? new EvaluationProfiler() : null;
+        resultCache = ResultCache.fromArgs(parsed);
+        ModelRegistry models = new ModelRegistry(root, parsed, profiler);
+        models.warmUp();
+        registry = models;
+
+        HttpServer server = createServer(parsed, profiler);
+        server.createContext("/models", exchange -> {
+            try {
+                // /models, or /models/<id>/<execute|service|info> where <id> may contain slashes
+                String path = exchange.getRequestURI().getPath().substring("/models".length());
+                int slash = path.lastIndexOf('/');
+                if (slash <= 0) {
+                    if (!path.isEmpty() && !path.equals("/")) {
+                        sendJson(exchange, 404, buildError("Use /models/<id>/execute, /service or /info"));
+                    } else if (!"GET".equals(exchange.getRequestMethod())) {
+                        sendJson(exchange, 405, buildError("Method not allowed: " + exchange.getRequestMethod()));
+                    } else {
+                        sendJson(exchange, 200, Map.of("models", models.list()));
+                    }
+                    return;
+                }
+                String id = path.substring(1, slash);
+                String action = path.substring(slash + 1);
+                if (!Set.of("execute", "service", "info").contains(action)) {
+                    sendJson(exchange, 404, buildError("Unknown endpoint: " + action));
+                    return;
+                }
+
+                ModelRegistry.Entry entry;
+                try {
+                    entry = models.get(id);
+                } catch (IOException | RuntimeException e) {
+                    sendJson(exchange, 500, buildError("Failed to load model '" + id + "': " + e.getMessage()));
+                    return;
+                }
+                if (entry == null) {
+                    sendJson(exchange, 404, buildError("Model not found: " + id));
+                    return;
+                }
+
+                if (action.equals("info")) {
+                    if (!"GET".equals(exchange.getRequestMethod())) {
+                        sendJson(exchange, 405, buildError("Method not allowed: " + exchange.getRequestMethod()));
+                        return;
+                    }
+                    sendJson(exchange, 200, entry.info());
+                } else {
+                    handleEvaluation(exchange, entry.targets(), parsed, action.equals("service"));
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+
+        server.start();
+        System.err.println("DMN Executor serving registry '" + root + "' on http://"
+            + parsed.host + ":" + server.getAddress().getPort() + " (" + parsed.threads + " threads"
+            + (parsed.memoryBudget > 0 ? ", " + (parsed.memoryBudget >> 20) + " MB model budget" : "") + ")");
+    }
+
+    // HTTP server with the endpoints shared by both serve modes: /metrics, /profile
+    private static HttpServer createServer(ParsedArgs parsed, EvaluationProfiler profiler) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(parsed.host, parsed.port), 0);
+        ExecutorService workers = Executors.newFixedThreadPool(parsed.threads);
+        server.setExecutor(workers);
+
+        if (profiler != null) {
+            server.createContext("/profile", exchange -> sendJson(exchange, 200, Map.of("profile", profiler.snapshot())));
+        }
+
+        server.createContext("/metrics", exchange -> send(exchange, 200, "text/plain; version=0.0.4; charset=utf-8",
+            metrics.toPrometheus().getBytes(StandardCharsets.UTF_8)));
+        metrics.registerMBeans();
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop(1);
+            workers.shutdown();
+        }));
+        return server;
+    }
+
+    private static void handleEvaluation(HttpExchange exchange, PreparedTargets targets, ParsedArgs parsed,
+                                         boolean serviceOnly) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendJson(exchange, 405, buildError("Method not allowed: " + exchange.getRequestMethod()));
+                return;
+            }
+
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String modelName = params.getOrDefault("model", parsed.modelName);
+            String decisionName = serviceOnly ? null : params.get("decision");
+            String serviceName = params.get("service");
+
+            PreparedTarget target = targets.get(modelName, decisionName, serviceName);
+            if (target == null) {
+                sendJson(exchange, 404, buildError("Could not find main DMN model"));
+                return;
+            }
+            if (target.model.hasErrors()) {
+                sendJson(exchange, 422, buildErrors(target.model.getMessages()));
+                return;
+            }
+
+            if (serviceOnly && target.serviceName == null) {
+                sendJson(exchange, 400, buildError("Decision service name required. Use ?service=<name>"));
+                return;
+            }
+            // Unknown names are rejected before evaluation, so they never become metric series or MBeans
+            if (!target.resolved()) {
+                sendJson(exchange, 404, buildError(target.serviceName != null
+                    ? checkDecisionService(target.model, target.serviceName)
+                    : checkDecision(target.model, target.decisionName)));
+                return;
+            }
+
+            Map<String, Object> inputContext;
+            try {
+                byte[] body = exchange.getRequestBody().readAllBytes();
+                inputContext = target.bind(body.length == 0 ? "{}" : new String(body, StandardCharsets.UTF_8));
+            } catch (IOException e) {
+                sendJson(exchange, 400, buildError("Invalid input JSON: " + e.getMessage()));
+                return;
+            }
+
+            DMNResult result = target.evaluate(inputContext);
+            sendJson(exchange, 200, resultBytes(result, inputContext));
+        } catch (RuntimeException e) {
+            sendJson(exchange, 500, buildError("Evaluation failed: " + e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        sendJson(exchange, status, mapper.writeValueAsBytes(body));
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        send(exchange, status, "application/json", body);
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(body);
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static DMNModel findMainModel(DMNRuntime runtime, String mainDmnFile, String modelName) {
+        if (modelName != null && !modelName.isEmpty()) {
+            return runtime.getModels().stream()
+                .filter(m -> m.getName().equals(modelName))
+                .findFirst()
+                .orElse(null);
+        }
+        
+        String fileName = Path.of(mainDmnFile).getFileName().toString();
+        String baseName = fileName.replace(".dmn", "").replace(".DMN", "");
+        
+        for (DMNModel model : runtime.getModels()) {
+            if (model.getName().equalsIgnoreCase(baseName)) {
+                return model;
+            }
+        }
+        
+        if (runtime.getModels().size() == 1) {
+            return runtime.getModels().get(0);
+        }
+        
+        return runtime.getModels().isEmpty() ? null : runtime.getModels().get(0);
+    }
+
+    private static DMNRuntime createRuntime(ParsedArgs parsed) throws Exception {
+        return createRuntime(resolveDmnFiles(parsed.mainDmnFile, parsed.importPaths, parsed.autoImport, parsed.modelName),
+            parsed);
+    }
+
+    private static DMNRuntime createRuntime(Set<Path> dmnFiles, ParsedArgs parsed) {
+        // KIE DMN runtime input type checking (enabled by default).
+        // If disabled, the engine will be more permissive with input values.
+        if (!parsed.runtimeTypeCheck) {
+            System.setProperty("org.kie.dmn.runtime.typecheck", "false");
+        }
+
+        List<Resource> resources = new ArrayList<>();
+        for (Path dmnFile : dmnFiles) {
+            Resource resource = ResourceFactory.newFileResource(dmnFile.toFile());
+            resource.setSourcePath(dmnFile.toString());
+            resource.setResourceType(ResourceType.DMN);
             resources.add(resource);
         }
 
-        DMNRuntimeBuilder builder = DMNRuntimeBuilder.fromDefaults();
-        
-        return builder.buildConfiguration()
-            .fromResources(resources)
-            .getOrElseThrow(e -> new RuntimeException("Failed to build DMN runtime: " + e.getMessage(), e));
+        DMNRuntimeBuilder builder = DMNRuntimeBuilder.fromDefaults();
+        if (parsed.compile) {
+            builder.addProfile(new CompiledFeelProfile());
+        }
+        
+        long start = System.nanoTime();
+        try {
+            DMNRuntime runtime = builder.buildConfiguration()
+                .fromResources(resources)
+                .getOrElseThrow(e -> new RuntimeException("Failed to build DMN runtime: " + e.getMessage(), e));
+            if (parsed.indexTables) {
+                DecisionTableIndex.install(runtime);
+            }
+            return runtime;
+        } finally {
+            metrics.recordCompilation(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Collect the main DMN file, explicit imports and (optionally) its sibling
+     * .dmn files, in load order. Files found by directory scan are kept only when
+     * the main model (or the model selected with -m) transitively imports them.
+     */
+    private static Set<Path> resolveDmnFiles(String mainDmnFile, List<String> importPaths, boolean autoImport,
+                                             String modelName) throws IOException {
+        Path mainPath = Path.of(mainDmnFile);
+        if (!Files.exists(mainPath)) {
+            throw new FileNotFoundException("DMN file not found: " + mainDmnFile);
+        }
+
+        Set<Path> dmnFiles = new LinkedHashSet<>();
+        dmnFiles.add(mainPath.toAbsolutePath());
+        Set<Path> scanned = new LinkedHashSet<>();
+        
+        for (String importPath : importPaths) {
+            Path p = Path.of(importPath);
+            if (Files.isDirectory(p)) {
+                try (Stream<Path> walk = Files.walk(p, 1)) {
+                    walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn"))
+                        .map(Path::toAbsolutePath)
+                        .forEach(scanned::add);
+                }
+            } else if (Files.exists(p)) {
+                dmnFiles.add(p.toAbsolutePath());
+            }
+        }
+        
+        if (autoImport) {
+            Path parentDir = mainPath.toAbsolutePath().getParent();
+            if (parentDir != null) {
+                try (Stream<Path> walk = Files.list(parentDir)) {
+                    walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn"))
+                        .map(Path::toAbsolutePath)
+                        .forEach(scanned::add);
+                }
+            }
+        }
+        scanned.removeAll(dmnFiles);
+        dmnFiles.addAll(ImportGraph.reachable(dmnFiles, scanned, modelName));
+        return dmnFiles;
+    }
+
+    /**
+     * Import graph over DMN files, built from their headers only: a StAX read of the
+     * definitions element's name and namespace and its import children, stopping at
+     * the first other child element, so no model is unmarshalled or compiled for it.
+     */
+    static final class ImportGraph {
+        private static final ThreadLocal<XMLInputFactory> XML = ThreadLocal.withInitial(() -> {
+            XMLInputFactory factory = XMLInputFactory.newFactory();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            return factory;
+        });
+
+        record Header(String name, String namespace, Set<String> imports) {}
+
+        /**
+         * Candidates imported, directly or transitively, by a root or by a candidate
+         * named modelName. Candidates whose header cannot be read are not DMN models
+         * anything could import, and are dropped.
+         */
+        static Set<Path> reachable(Set<Path> roots, Set<Path> candidates, String modelName) {
+            Map<Path, Optional<Header>> headers = Stream.concat(roots.stream(), candidates.stream())
+                .parallel()
+                .collect(Collectors.toConcurrentMap(Function.identity(), f -> Optional.ofNullable(read(f))));
+
+            Map<String, List<Path>> byNamespace = new HashMap<>();
+            Set<Path> kept = new LinkedHashSet<>();
+            Deque<String> pending = new ArrayDeque<>();
+            for (Path file : candidates) {
+                Header header = headers.get(file).orElse(null);
+                if (header == null) {
+                    continue;
+                }
+                byNamespace.computeIfAbsent(header.namespace(), ns -> new ArrayList<>()).add(file);
+                if (header.name().equals(modelName)) {
+                    kept.add(file);
+                    pending.addAll(header.imports());
+                }
+            }
+            for (Path root : roots) {
+                headers.get(root).ifPresent(header -> pending.addAll(header.imports()));
+            }
+
+            Set<String> seen = new HashSet<>();
+            while (!pending.isEmpty()) {
+                String namespace = pending.pop();
+                if (!seen.add(namespace)) {
+                    continue;
+                }
+                for (Path file : byNamespace.getOrDefault(namespace, List.of())) {
+                    kept.add(file);
+                    pending.addAll(headers.get(file).get().imports());
+                }
+            }
+            // Keep directory-scan order
+            Set<Path> ordered = new LinkedHashSet<>(candidates);
+            ordered.retainAll(kept);
+            return ordered;
+        }
+
+        /** The header of a DMN file, or null when it is not readable DMN XML. */
+        static Header read(Path file) {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+                XMLStreamReader xml = XML.get().createXMLStreamReader(in);
+                try {
+                    if (xml.nextTag() != XMLStreamConstants.START_ELEMENT || !"definitions".equals(xml.getLocalName())) {
+                        return null;
+                    }
+                    String name = xml.getAttributeValue(null, "name");
+                    String namespace = xml.getAttributeValue(null, "namespace");
+                    if (namespace == null) {
+                        return null;
+                    }
+                    Set<String> imports = new LinkedHashSet<>();
+                    int depth = 1;
+                    while (xml.hasNext() && depth > 0) {
+                        int event = xml.next();
+                        if (event == XMLStreamConstants.START_ELEMENT) {
+                            if (depth == 1) {
+                                String element = xml.getLocalName();
+                                if ("import".equals(element)) {
+                                    String imported = xml.getAttributeValue(null, "namespace");
+                                    if (imported != null) {
+                                        imports.add(imported);
+                                    }
+                                } else if (!"description".equals(element) && !"extensionElements".equals(element)) {
+                                    // Imports precede item definitions and DRG elements
+                                    break;
+                                }
+                            }
+                            depth++;
+                        } else if (event == XMLStreamConstants.END_ELEMENT) {
+                            depth--;
+                        }
+                    }
+                    return new Header(name != null ? name : "", namespace, imports);
+                } finally {
+                    xml.close();
+                }
+            } catch (IOException | XMLStreamException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * DMN profile used by --compile. KIE's FEEL engine switches from the AST interpreter
+     * to generated Java bytecode when any configured profile is a DoCompileFEELProfile;
+     * this covers literal expressions as well as decision table unary tests and output
+     * entries. There is no silent fallback: an expression that cannot be compiled is
+     * reported as a model compilation error. KIE's alpha-network decision table compiler
+     * is not enabled: in 10.1 it returns stale results across evaluations and mishandles
+     * path expressions in input columns.
+     */
+    static class CompiledFeelProfile extends DoCompileFEELProfile implements DMNProfile {
+        @Override
+        public List<DMNExtensionRegister> getExtensionRegisters() {
+            return List.of();
+        }
+
+        @Override
+        public List<DRGElementCompiler> getDRGElementCompilers() {
+            return List.of();
+        }
+    }
+
+    /**
+     * Report how each decision and BKM executes after a --compile build. FEEL literal
+     * expressions and decision tables run as generated bytecode; the other boxed
+     * expressions (contexts, invocations, function definitions, ...) are still walked
+     * by the DMN engine's interpreter, with only their nested FEEL compiled.
+     */
+    private static List<Map<String, Object>> buildCompilationReport(DMNModel model) {
+        List<Map<String, Object>> report = new ArrayList<>();
+        for (DecisionNode decision : model.getDecisions()) {
+            report.add(describeEvaluator(decision.getName(), ((DecisionNodeImpl) decision).getEvaluator()));
+        }
+        for (BusinessKnowledgeModelNode bkm : model.getBusinessKnowledgeModels()) {
+            report.add(describeEvaluator(bkm.getName(), ((BusinessKnowledgeModelNodeImpl) bkm).getEvaluator()));
+        }
+        return report;
+    }
+
+    private static Map<String, Object> describeEvaluator(String nodeName, DMNExpressionEvaluator evaluator) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("node", nodeName);
+        if (evaluator instanceof DMNLiteralExpressionEvaluator) {
+            entry.put("expression", "literalExpression");
+            entry.put("mode", "compiled");
+        } else if (evaluator instanceof DMNDTExpressionEvaluator) {
+            entry.put("expression", "decisionTable");
+            entry.put("mode", "compiled");
+        } else {
+            String kind = evaluator == null ? "" : evaluator.getClass().getSimpleName()
+                .replaceFirst("^DMN", "").replaceFirst("Evaluator$", "");
+            entry.put("expression", kind.isEmpty() ? "none" : Character.toLowerCase(kind.charAt(0)) + kind.substring(1));
+            entry.put("mode", "interpreted");
+            entry.put("reason", "evaluated by the DMN engine; nested FEEL expressions are compiled");
+        }
+        return entry;
+    }
+
+    /**
+     * Candidate-rule indexes for large decision tables. KIE matches a table by testing
+     * every rule in turn (DecisionTableImpl.findMatches iterates its rule list). For each
+     * decision whose logic is a table of at least MIN_RULES rules, the input columns whose
+     * expression is a name or dotted path are indexed from the rule entries' text: string
+     * and boolean literals (and lists of them) by hash, numeric literals, comparisons and
+     * ranges by interval. The table's rule list is then replaced by an IndexedRules list
+     * whose iterator yields, in rule order, only the rules that can match the current
+     * input values. KIE still tests every rule it is given in full, so matches, hit
+     * policies, output checks and events are exactly those of a full scan.
+     *
+     * A rule with an entry the index does not understand (functions, dates, names, ...)
+     * is always tested, since the entry may raise an error the engine must report; an
+     * input value a column cannot key (null, a list, a type other than the column's)
+     * falls back to testing all rules. The input values are read from the context the
+     * table is evaluated in, which TableContexts captures from the decision table events.
+     * Rule lists are reached by reflection; a table where that fails is left unindexed.
+     * Tables inside BKMs and boxed expressions are not indexed.
+     */
+    static final class DecisionTableIndex {
+        static final int MIN_RULES = 16;
+        // Interval columns whose ranges overlap heavily are not worth indexing
+        private static final int MAX_SLOT_ENTRIES_PER_RULE = 32;
+
+        private static final Map<DMNModel, List<Map<String, Object>>> REPORTS = Collections.synchronizedMap(new WeakHashMap<>());
+        private static final Pattern PATH = Pattern.compile("[\\p{L}_][\\p{L}\\p{N}_ ]*(\\s*\\.\\s*[\\p{L}_][\\p{L}\\p{N}_ ]*)*");
+        private static final Pattern NUMBER = Pattern.compile("-?(\\d+(\\.\\d*)?|\\.\\d+)");
+        private static final Pattern COMPARISON = Pattern.compile("(<=|>=|<|>)\\s*(" + NUMBER.pattern() + ")");
+        private static final Pattern RANGE = Pattern.compile("([\\[\\](])\\s*(" + NUMBER.pattern() + ")\\s*\\.\\.\\s*("
+            + NUMBER.pattern() + ")\\s*([\\[\\])])");
+        private static final Set<String> KEYWORDS = Set.of("and", "or", "not", "in", "instance", "of", "between", "for",
+            "if", "then", "else", "some", "every", "satisfies", "return", "function", "external", "null", "true", "false");
+
+        /** Indexes the eligible tables of every model in the runtime and records what was done. */
+        static void install(DMNRuntime runtime) {
+            boolean any = false;
+            for (DMNModel model : runtime.getModels()) {
+                List<Map<String, Object>> report = new ArrayList<>();
+                for (DecisionNode decision : model.getDecisions()) {
+                    if (((DecisionNodeImpl) decision).getEvaluator() instanceof DMNDTExpressionEvaluator evaluator
+                            && ((DecisionNodeImpl) decision).getDecision().getExpression() instanceof DecisionTable table) {
+                        Map<String, Object> entry = new LinkedHashMap<>();
+                        entry.put("decision", decision.getName());
+                        entry.put("rules", table.getRule().size());
+                        entry.put("hitPolicy", table.getHitPolicy().value());
+                        any |= index(decision.getName(), evaluator, table, entry);
+                        report.add(entry);
+                    }
+                }
+                REPORTS.put(model, report);
+            }
+            if (any) {
+                runtime.addListener(new TableContexts());
+            }
+        }
+
+        /** Per decision table: rules, hit policy, indexed columns or the reason it was not indexed. */
+        static List<Map<String, Object>> report(DMNModel model) {
+            return REPORTS.getOrDefault(model, List.of());
+        }
+
+        private static boolean index(String decisionName, DMNDTExpressionEvaluator evaluator, DecisionTable table,
+                                     Map<String, Object> report) {
+            int rules = table.getRule().size();
+            if (rules < MIN_RULES) {
+                report.put("indexed", false);
+                report.put("reason", "fewer than " + MIN_RULES + " rules");
+                return false;
+            }
+
+            List<Column> columns = new ArrayList<>();
+            List<Map<String, Object>> described = new ArrayList<>();
+            // Rules with an entry that might raise an error for some input are never skipped,
+            // so a failing table fails the same way it does without the index
+            BitSet alwaysTested = new BitSet();
+            for (int c = 0; c < table.getInput().size(); c++) {
+                String expression = table.getInput().get(c).getInputExpression().getText().trim();
+                List<String> entries = new ArrayList<>(rules);
+                for (DecisionRule rule : table.getRule()) {
+                    entries.add(rule.getInputEntry().get(c).getText());
+                }
+                List<String> path = path(expression);
+                Column column = path != null ? Column.build(path, entries) : null;
+                if (column == null) {
+                    for (int rule = 0; rule < rules; rule++) {
+                        if (!entries.get(rule).trim().equals("-")) {
+                            alwaysTested.set(rule);
+                        }
+                    }
+                } else {
+                    alwaysTested.or(column.unsafe);
+                    columns.add(column);
+                    Map<String, Object> info = new LinkedHashMap<>();
+                    info.put("input", expression);
+                    info.put("index", column.kind());
+                    info.put("keyedRules", column.keyedRules());
+                    described.add(info);
+                }
+            }
+            if (columns.isEmpty()) {
+                report.put("indexed", false);
+                report.put("reason", "no input column with literal or range entries on a name or path");
+                return false;
+            }
+            if (alwaysTested.cardinality() == rules) {
+                report.put("indexed", false);
+                report.put("reason", "every rule has an entry the index cannot key");
+                return false;
+            }
+
+            try {
+                DecisionTableImpl dt = ((DTInvokerFunction) field(DMNDTExpressionEvaluator.class, "dt").get(evaluator))
+                    .getDecisionTable();
+                Field rulesField = field(DecisionTableImpl.class, "decisionRules");
+                @SuppressWarnings("unchecked")
+                List<DTDecisionRule> compiled = (List<DTDecisionRule>) rulesField.get(dt);
+                if (compiled.size() != rules) {
+                    throw new IllegalStateException("rule count mismatch");
+                }
+                rulesField.set(dt, new IndexedRules(compiled, columns.toArray(Column[]::new), alwaysTested,
+                    decisionName, evaluator.getDtNodeId()));
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                report.put("indexed", false);
+                report.put("reason", "engine internals not accessible: " + e.getMessage());
+                return false;
+            }
+            report.put("indexed", true);
+            report.put("columns", described);
+            report.put("alwaysTestedRules", alwaysTested.cardinality());
+            return true;
+        }
+
+        private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+            Field field = type.getDeclaredField(name);
+            field.setAccessible(true);
+            return field;
+        }
+
+        // A name or dotted path into context values, e.g. "Customer.tier"; null for anything else
+        private static List<String> path(String expression) {
+            if (!PATH.matcher(expression).matches()) {
+                return null;
+            }
+            List<String> path = new ArrayList<>();
+            for (String segment : expression.split("\\.")) {
+                String name = segment.trim();
+                for (String word : name.split(" +")) {
+                    if (KEYWORDS.contains(word)) {
+                        return null;
+                    }
+                }
+                path.add(name);
+            }
+            return path;
+        }
+
+        /** Rule list whose iterator yields only the candidate rules for the table's current inputs. */
+        static final class IndexedRules extends AbstractList<DTDecisionRule> {
+            private final List<DTDecisionRule> rules;
+            private final Column[] columns;
+            private final BitSet alwaysTested;
+            private final String nodeName;
+            private final String tableId;
+
+            IndexedRules(List<DTDecisionRule> rules, Column[] columns, BitSet alwaysTested, String nodeName,
+                         String tableId) {
+                this.rules = List.copyOf(rules);
+                this.columns = columns;
+                this.alwaysTested = alwaysTested;
+                this.nodeName = nodeName;
+                this.tableId = tableId;
+            }
+
+            @Override
+            public DTDecisionRule get(int index) {
+                return rules.get(index);
+            }
+
+            @Override
+            public int size() {
+                return rules.size();
+            }
+
+            @Override
+            public Iterator<DTDecisionRule> iterator() {
+                DMNContext context = TableContexts.current(nodeName, tableId);
+                BitSet candidates = context != null ? candidates(context) : null;
+                if (candidates == null) {
+                    return rules.iterator();
+                }
+                return new Iterator<>() {
+                    private int next = candidates.nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next >= 0;
+                    }
+
+                    @Override
+                    public DTDecisionRule next() {
+                        if (next < 0) {
+                            throw new NoSuchElementException();
+                        }
+                        DTDecisionRule rule = rules.get(next);
+                        next = candidates.nextSetBit(next + 1);
+                        return rule;
+                    }
+                };
+            }
+
+            // Intersection over the indexed columns; null (scan all) when any input cannot be keyed
+            private BitSet candidates(DMNContext context) {
+                BitSet result = null;
+                for (Column column : columns) {
+                    BitSet matching = column.candidates(column.resolve(context));
+                    if (matching == null) {
+                        return null;
+                    } else if (result == null) {
+                        result = matching;
+                    } else {
+                        result.and(matching);
+                    }
+                }
+                result.or(alwaysTested);
+                return result;
+            }
+        }
+
+        /**
+         * Index over one input column. Rules whose entry is "-", a not() of keyable values or
+         * not understood are in every candidate set; the others are keyed by literal (hash) or
+         * by the elementary intervals between all range endpoints (interval), where slot 2i+1
+         * is endpoint i itself and slot 2i the open gap below it. Entries not understood are
+         * also marked unsafe: they may raise an error, so their rules are never skipped.
+         */
+        static final class Column {
+            private static final Object MISSING = new Object();
+
+            private final List<String> path;
+            private final int size;
+            private final BitSet always = new BitSet();
+            private final BitSet unsafe = new BitSet();
+            private final Map<Object, BitSet> byKey;  // HASH
+            private final BigDecimal[] endpoints;     // INTERVAL
+            private final int[][] slots;
+            private final Class<?> keyType;
+
+            private Column(List<String> path, int size, Map<Object, BitSet> byKey, BigDecimal[] endpoints,
+                           int[][] slots, Class<?> keyType) {
+                this.path = path;
+                this.size = size;
+                this.byKey = byKey;
+                this.endpoints = endpoints;
+                this.slots = slots;
+                this.keyType = keyType;
+            }
+
+            String kind() {
+                return byKey != null ? "hash" : "interval";
+            }
+
+            int keyedRules() {
+                return size - always.cardinality();
+            }
+
+            static Column build(List<String> path, List<String> entries) {
+                // Parse every entry; the column takes the kind most keyed entries have
+                List<List<Object>> literals = new ArrayList<>(entries.size());
+                List<List<Interval>> intervals = new ArrayList<>(entries.size());
+                Map<Class<?>, Integer> literalTypes = new HashMap<>();
+                int numeric = 0;
+                for (String text : entries) {
+                    List<Object> keys = literals(text);
+                    List<Interval> ranges = keys == null ? intervals(text) : null;
+                    if (ranges != null && ranges.isEmpty()) {
+                        keys = List.of();
+                        ranges = null;
+                    }
+                    literals.add(keys);
+                    intervals.add(ranges);
+                    if (keys != null && !keys.isEmpty()) {
+                        Class<?> type = keys.get(0).getClass();
+                        literalTypes.merge(type, 1, Integer::sum);
+                    } else if (ranges != null) {
+                        numeric++;
+                    }
+                }
+                Map.Entry<Class<?>, Integer> literalKind = literalTypes.entrySet().stream()
+                    .max(Map.Entry.comparingByValue()).orElse(null);
+                int literalCount = literalKind != null ? literalKind.getValue() : 0;
+                if (Math.max(literalCount, numeric) == 0) {
+                    return null;
+                }
+
+                if (literalCount >= numeric) {
+                    Class<?> type = literalKind.getKey();
+                    Column column = new Column(path, entries.size(), new HashMap<>(), null, null, type);
+                    for (int rule = 0; rule < entries.size(); rule++) {
+                        List<Object> keys = literals.get(rule);
+                        if (keys == null || keys.isEmpty() || keys.stream().anyMatch(k -> k.getClass() != type)) {
+                            column.always.set(rule);
+                            String negated = negated(entries.get(rule));
+                            List<Object> excluded = negated != null ? literals(negated) : null;
+                            if ((keys == null || !keys.isEmpty()) && (excluded == null || excluded.isEmpty()
+                                    || excluded.stream().anyMatch(k -> k.getClass() != type))) {
+                                column.unsafe.set(rule);
+                            }
+                        } else {
+                            for (Object key : keys) {
+                                column.byKey.computeIfAbsent(key, k -> new BitSet()).set(rule);
+                            }
+                        }
+                    }
+                    return column;
+                }
+
+                TreeSet<BigDecimal> points = new TreeSet<>();
+                for (List<Interval> ranges : intervals) {
+                    if (ranges != null) {
+                        for (Interval range : ranges) {
+                            if (range.low() != null) {
+                                points.add(range.low());
+                            }
+                            if (range.high() != null) {
+                                points.add(range.high());
+                            }
+                        }
+                    }
+                }
+                BigDecimal[] endpoints = points.toArray(BigDecimal[]::new);
+                List<List<Integer>> slotRules = new ArrayList<>();
+                for (int i = 0; i <= 2 * endpoints.length; i++) {
+                    slotRules.add(new ArrayList<>());
+                }
+                BitSet always = new BitSet();
+                BitSet unsafe = new BitSet();
+                long total = 0;
+                for (int rule = 0; rule < entries.size(); rule++) {
+                    List<Interval> ranges = intervals.get(rule);
+                    if (ranges == null) {
+                        always.set(rule);
+                        String negated = negated(entries.get(rule));
+                        List<Interval> excluded = negated != null ? intervals(negated) : null;
+                        if (!List.of().equals(literals.get(rule)) && (excluded == null || excluded.isEmpty())) {
+                            unsafe.set(rule);
+                        }
+                        continue;
+                    }
+                    for (Interval range : ranges) {
+                        int from = range.low() == null ? 0
+                            : 2 * Arrays.binarySearch(endpoints, range.low()) + (range.lowClosed() ? 1 : 2);
+                        int to = range.high() == null ? 2 * endpoints.length
+                            : 2 * Arrays.binarySearch(endpoints, range.high()) + (range.highClosed() ? 1 : 0);
+                        for (int slot = from; slot <= to; slot++) {
+                            slotRules.get(slot).add(rule);
+                        }
+                        total += Math.max(0, to - from + 1);
+                    }
+                }
+                if (total > (long) MAX_SLOT_ENTRIES_PER_RULE * entries.size()) {
+                    return null;
+                }
+                int[][] slots = slotRules.stream()
+                    .map(rules -> rules.stream().mapToInt(Integer::intValue).distinct().toArray())
+                    .toArray(int[][]::new);
+                Column column = new Column(path, entries.size(), null, endpoints, slots, BigDecimal.class);
+                column.always.or(always);
+                column.unsafe.or(unsafe);
+                return column;
+            }
+
+            Object resolve(DMNContext context) {
+                String name = path.get(0);
+                if (!context.isDefined(name)) {
+                    return MISSING;
+                }
+                Object value = context.get(name);
+                for (int i = 1; i < path.size(); i++) {
+                    if (!(value instanceof Map<?, ?> map) || !map.containsKey(path.get(i))) {
+                        return MISSING;
+                    }
+                    value = map.get(path.get(i));
+                }
+                return value;
+            }
+
+            // Rules that can match value, or null when the value cannot be keyed
+            BitSet candidates(Object value) {
+                Object key = key(value);
+                if (key == null || key.getClass() != keyType) {
+                    return null;
+                }
+                BitSet result = (BitSet) always.clone();
+                if (byKey != null) {
+                    BitSet keyed = byKey.get(key);
+                    if (keyed != null) {
+                        result.or(keyed);
+                    }
+                } else {
+                    int found = Arrays.binarySearch(endpoints, (BigDecimal) key);
+                    int slot = found >= 0 ? 2 * found + 1 : 2 * (-found - 1);
+                    for (int rule : slots[slot]) {
+                        result.set(rule);
+                    }
+                }
+                return result;
+            }
+
+            // FEEL compares numbers by value: key them by their canonical BigDecimal
+            private static Object key(Object value) {
+                if (value instanceof BigDecimal number) {
+                    return number.stripTrailingZeros();
+                } else if (value instanceof Number number) {
+                    try {
+                        return new BigDecimal(number.toString()).stripTrailingZeros();
+                    } catch (NumberFormatException e) {
+                        return null;
+                    }
+                } else if (value instanceof String || value instanceof Boolean) {
+                    return value;
+                }
+                return null;
+            }
+
+            // "Gold", true, 42, or a comma-separated list of them; null if anything else
+            private static List<Object> literals(String text) {
+                String trimmed = text.trim();
+                if (trimmed.equals("-") || trimmed.isEmpty()) {
+                    return List.of();
+                }
+                List<Object> keys = new ArrayList<>();
+                for (String part : splitList(trimmed)) {
+                    String item = part.trim();
+                    if (item.length() >= 2 && item.startsWith("\"") && item.endsWith("\"")
+                            && item.indexOf('"', 1) == item.length() - 1 && item.indexOf('\\') < 0) {
+                        keys.add(item.substring(1, item.length() - 1));
+                    } else if (item.equals("true") || item.equals("false")) {
+                        keys.add(Boolean.valueOf(item));
+                    } else if (NUMBER.matcher(item).matches()) {
+                        keys.add(new BigDecimal(item).stripTrailingZeros());
+                    } else {
+                        return null;
+                    }
+                }
+                // Numeric literals are points of an interval column unless strings/booleans are mixed in
+                return keys.stream().allMatch(k -> k instanceof BigDecimal) ? null : keys;
+            }
+
+            // The argument list of a not(...) entry, or null
+            private static String negated(String text) {
+                String trimmed = text.trim();
+                return trimmed.startsWith("not(") && trimmed.endsWith(")")
+                    ? trimmed.substring(4, trimmed.length() - 1) : null;
+            }
+
+            // Numbers, comparisons and ranges, or a list of them; null if anything else
+            private static List<Interval> intervals(String text) {
+                if (text.trim().equals("-")) {
+                    return List.of();
+                }
+                List<Interval> ranges = new ArrayList<>();
+                for (String part : splitList(text.trim())) {
+                    String item = part.trim();
+                    Matcher m;
+                    if (NUMBER.matcher(item).matches()) {
+                        BigDecimal point = new BigDecimal(item).stripTrailingZeros();
+                        ranges.add(new Interval(point, true, point, true));
+                    } else if ((m = COMPARISON.matcher(item)).matches()) {
+                        BigDecimal bound = new BigDecimal(m.group(2)).stripTrailingZeros();
+                        ranges.add(switch (m.group(1)) {
+                            case "<" -> new Interval(null, false, bound, false);
+                            case "<=" -> new Interval(null, false, bound, true);
+                            case ">" -> new Interval(bound, false, null, false);
+                            default -> new Interval(bound, true, null, false);
+                        });
+                    } else if ((m = RANGE.matcher(item)).matches()) {
+                        BigDecimal low = new BigDecimal(m.group(2)).stripTrailingZeros();
+                        BigDecimal high = new BigDecimal(m.group(5)).stripTrailingZeros();
+                        if (low.compareTo(high) > 0) {
+                            return null;
+                        }
+                        ranges.add(new Interval(low, m.group(1).equals("["), high, m.group(8).equals("]")));
+                    } else {
+                        return null;
+                    }
+                }
+                return ranges;
+            }
+
+            // Splits on commas outside string literals
+            private static List<String> splitList(String text) {
+                List<String> parts = new ArrayList<>();
+                boolean quoted = false;
+                int start = 0;
+                for (int i = 0; i < text.length(); i++) {
+                    char ch = text.charAt(i);
+                    if (ch == '"') {
+                        quoted = !quoted;
+                    } else if (ch == ',' && !quoted) {
+                        parts.add(text.substring(start, i));
+                        start = i + 1;
+                    }
+                }
+                parts.add(text.substring(start));
+                return parts;
+            }
+        }
+
+        /** A numeric interval; a null bound is unbounded. */
+        record Interval(BigDecimal low, boolean lowClosed, BigDecimal high, boolean highClosed) {}
+
+        /**
+         * Tracks, per thread, the context of each decision table being evaluated. Tables
+         * nest (a BKM called from an input expression), so this is a stack; the after-event
+         * is fired in a finally block by the engine, keeping it balanced.
+         */
+        static final class TableContexts implements DMNRuntimeEventListener {
+            private static final ThreadLocal<Deque<Object[]>> FRAMES = ThreadLocal.withInitial(ArrayDeque::new);
+
+            @Override
+            public void beforeEvaluateDecisionTable(BeforeEvaluateDecisionTableEvent event) {
+                FRAMES.get().push(new Object[] {event.getNodeName(), event.getDecisionTableId(), event.getResult().getContext()});
+            }
+
+            @Override
+            public void afterEvaluateDecisionTable(AfterEvaluateDecisionTableEvent event) {
+                FRAMES.get().poll();
+            }
+
+            static DMNContext current(String nodeName, String tableId) {
+                Object[] frame = FRAMES.get().peek();
+                return frame != null && Objects.equals(frame[0], nodeName) && Objects.equals(frame[1], tableId)
+                    ? (DMNContext) frame[2] : null;
+            }
+        }
+    }
+
+    /**
+     * Parses JSON input straight into FEEL-native values, guided by the declared types of
+     * the model's input data (and of its decisions, which decision services accept as
+     * inputs). Numbers become BigDecimal, strings declared as date, time, date and time or
+     * duration go through the same FEEL parsing as the built-in conversion functions, and
+     * structures follow their item definitions. The per-type readers are built once per
+     * model, and the input is read in a single pass with no intermediate tree.
+     *
+     * A value that does not fit its declared type is read as plain JSON and left for the
+     * engine to coerce or reject, exactly as without binding.
+     */
+    static final class InputBinder {
+        private static final Map<DMNModel, InputBinder> BINDERS = Collections.synchronizedMap(new WeakHashMap<>());
+        // Recursive item definitions are bound generically past this depth
+        private static final int MAX_DEPTH = 16;
+
+        @FunctionalInterface
+        interface Reader {
+            Object read(JsonParser p) throws IOException;
+        }
+
+        private static final Reader ANY = InputBinder::readAny;
+
+        private final Map<String, Reader> inputs = new HashMap<>();
+        private final Map<String, DMNType> types = new HashMap<>();
+
+        private InputBinder(DMNModel model) {
+            for (DecisionNode decision : model.getDecisions()) {
+                types.put(decision.getName(), decision.getResultType());
+            }
+            for (InputDataNode input : model.getInputs()) {
+                types.put(input.getName(), input.getType());
+            }
+            types.forEach((name, type) -> inputs.put(name, readerFor(type, 0)));
+        }
+
+        boolean hasInput(String name) {
+            return types.containsKey(name);
+        }
+
+        static InputBinder forModel(DMNModel model) {
+            return BINDERS.computeIfAbsent(model, InputBinder::new);
+        }
+
+        /**
+         * Reads an input object. With {@code required} set, fields outside it are skipped
+         * unparsed; a decision never reads them, so the result is the same.
+         */
+        Map<String, Object> read(String json, Set<String> required) throws IOException {
+            try (JsonParser p = mapper.getFactory().createParser(json)) {
+                if (p.nextToken() != JsonToken.START_OBJECT) {
+                    throw new JsonParseException(p, "Input must be a JSON object");
+                }
+                Map<String, Object> input = new LinkedHashMap<>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    p.nextToken();
+                    if (required != null && !required.contains(name)) {
+                        p.skipChildren();
+                        continue;
+                    }
+                    input.put(name, inputs.getOrDefault(name, ANY).read(p));
+                }
+                return input;
+            }
+        }
+
+        /**
+         * Converter for a text cell holding the value at {@code path}: an input name,
+         * optionally followed by field names of a structured input. Structured values
+         * in a single cell are expected as JSON.
+         */
+        Function<String, Object> cellReader(List<String> path) {
+            DMNType type = types.get(path.get(0));
+            for (String field : path.subList(1, path.size())) {
+                while (type != null && !type.isComposite() && !type.isCollection() && type.getBaseType() != null) {
+                    type = type.getBaseType();
+                }
+                type = type != null && type.isComposite() && !type.isCollection() ? type.getFields().get(field) : null;
+            }
+            return textReaderFor(type, 0);
+        }
+
+        private static Function<String, Object> textReaderFor(DMNType type, int depth) {
+            if (!(type instanceof BaseDMNTypeImpl) || depth > MAX_DEPTH) {
+                return text -> text;
+            }
+            Type feelType = ((BaseDMNTypeImpl) type).getFeelType();
+            if (feelType == BuiltInType.UNKNOWN) {
+                return text -> text;
+            }
+            if (type.isCollection() || type.isComposite()) {
+                Reader reader = readerFor(type, depth);
+                return text -> {
+                    try (JsonParser p = mapper.getFactory().createParser(text)) {
+                        p.nextToken();
+                        return reader.read(p);
+                    } catch (IOException e) {
+                        return text;
+                    }
+                };
+            }
+            if (type.getBaseType() != null) {
+                return textReaderFor(type.getBaseType(), depth + 1);
+            }
+            if (feelType == BuiltInType.NUMBER) {
+                return InputBinder::decimal;
+            }
+            if (feelType == BuiltInType.BOOLEAN) {
+                return text -> "true".equalsIgnoreCase(text) ? Boolean.TRUE
+                    : "false".equalsIgnoreCase(text) ? Boolean.FALSE : text;
+            }
+            if (feelType == BuiltInType.DATE || feelType == BuiltInType.TIME
+                    || feelType == BuiltInType.DATE_TIME || feelType == BuiltInType.DURATION) {
+                BuiltInType temporal = (BuiltInType) feelType;
+                return text -> {
+                    Object value = temporal.fromString(text);
+                    return value != null ? value : text;
+                };
+            }
+            return text -> text;
+        }
+
+        private static Reader readerFor(DMNType type, int depth) {
+            if (!(type instanceof BaseDMNTypeImpl) || depth > MAX_DEPTH) {
+                return ANY;
+            }
+            Type feelType = ((BaseDMNTypeImpl) type).getFeelType();
+            if (feelType == BuiltInType.UNKNOWN) {
+                return ANY;
+            }
+            if (type.isCollection()) {
+                return listOf(type.isComposite() ? contextOf(type, depth) : readerFor(type.getBaseType(), depth + 1));
+            }
+            if (type.isComposite()) {
+                return contextOf(type, depth);
+            }
+            if (type.getBaseType() != null) {
+                // Constrained or aliased type: bind as its base type
+                return readerFor(type.getBaseType(), depth + 1);
+            }
+            if (feelType == BuiltInType.NUMBER) {
+                return p -> p.currentToken().isNumeric() ? decimal(p) : readAny(p);
+            }
+            if (feelType == BuiltInType.DATE || feelType == BuiltInType.TIME
+                    || feelType == BuiltInType.DATE_TIME || feelType == BuiltInType.DURATION) {
+                BuiltInType temporal = (BuiltInType) feelType;
+                return p -> {
+                    if (p.currentToken() != JsonToken.VALUE_STRING) {
+                        return readAny(p);
+                    }
+                    String text = p.getText();
+                    Object value = temporal.fromString(text);
+                    return value != null ? value : text;
+                };
+            }
+            return ANY;
+        }
+
+        private static Reader contextOf(DMNType type, int depth) {
+            Map<String, Reader> fields = new HashMap<>();
+            type.getFields().forEach((name, fieldType) -> fields.put(name, readerFor(fieldType, depth + 1)));
+            return p -> {
+                if (p.currentToken() != JsonToken.START_OBJECT) {
+                    return readAny(p);
+                }
+                Map<String, Object> context = new LinkedHashMap<>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = p.currentName();
+                    p.nextToken();
+                    context.put(name, fields.getOrDefault(name, ANY).read(p));
+                }
+                return context;
+            };
+        }
+
+        private static Reader listOf(Reader element) {
+            return p -> {
+                if (p.currentToken() != JsonToken.START_ARRAY) {
+                    // FEEL treats a single value as a singleton list; let the engine do that
+                    return element.read(p);
+                }
+                List<Object> list = new ArrayList<>();
+                while (p.nextToken() != JsonToken.END_ARRAY) {
+                    list.add(element.read(p));
+                }
+                return list;
+            };
+        }
+
+        private static Object readAny(JsonParser p) throws IOException {
+            switch (p.currentToken()) {
+                case START_OBJECT: {
+                    Map<String, Object> map = new LinkedHashMap<>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.currentName();
+                        p.nextToken();
+                        map.put(name, readAny(p));
+                    }
+                    return map;
+                }
+                case START_ARRAY: {
+                    List<Object> list = new ArrayList<>();
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        list.add(readAny(p));
+                    }
+                    return list;
+                }
+                case VALUE_STRING:
+                    return p.getText();
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    return decimal(p);
+                case VALUE_TRUE:
+                    return Boolean.TRUE;
+                case VALUE_FALSE:
+                    return Boolean.FALSE;
+                case VALUE_NULL:
+                    return null;
+                default:
+                    throw new JsonParseException(p, "Unexpected token " + p.currentToken());
+            }
+        }
+
+        // Same value the engine would derive from the JSON number: DECIMAL128, no trailing zeros
+        private static BigDecimal decimal(JsonParser p) throws IOException {
+            BigDecimal value = p.getDecimalValue();
+            if (p.currentToken() == JsonToken.VALUE_NUMBER_FLOAT) {
+                value = value.stripTrailingZeros();
+                if (value.scale() < 0) {
+                    value = value.setScale(0);
+                }
+            }
+            return value.round(MathContext.DECIMAL128);
+        }
+
+        private static Object decimal(String text) {
+            try {
+                BigDecimal value = new BigDecimal(text.trim());
+                if (value.scale() > 0) {
+                    value = value.stripTrailingZeros();
+                }
+                if (value.scale() < 0) {
+                    value = value.setScale(0);
+                }
+                return value.round(MathContext.DECIMAL128);
+            } catch (NumberFormatException e) {
+                return text;
+            }
+        }
+    }
+
+    /**
+     * A decision, a decision service or evaluateAll, resolved once against a runtime: the
+     * main model, the target's node, the inputs it reads, its output decisions and the
+     * model's input binder. Callers that evaluate one target repeatedly (batch records,
+     * serve requests, bench, replay) bind and evaluate through it and skip the per-call
+     * model lookup, service validation and per-model binder/requirements lookups.
+     * Immutable, so one handle is shared by all threads.
+     */
+    static final class PreparedTarget {
+        final DMNRuntime runtime;
+        final DMNModel model;
+        final String decisionName;  // null unless a single decision
+        final String serviceName;   // null unless a decision service
+        final DMNNode node;         // null for evaluateAll, or when the name resolves to nothing
+        final Set<String> requiredInputs;  // null: the target may read any input
+        final List<String> outputDecisions;
+        final String metricsModel;  // model label in metrics
+        private final InputBinder binder;
+
+        private PreparedTarget(DMNRuntime runtime, DMNModel model, String decisionName, String serviceName,
+                               String metricsModel) {
+            this.runtime = runtime;
+            this.model = model;
+            this.metricsModel = metricsModel;
+            this.decisionName = decisionName;
+            this.serviceName = serviceName;
+            if (serviceName != null) {
+                DecisionServiceNode service = model.getDecisionServices().stream()
+                    .filter(ds -> ds.getName().equals(serviceName))
+                    .findFirst()
+                    .orElse(null);
+                this.node = service;
+                this.outputDecisions = service == null ? List.of()
+                    : service.getDecisionService().getOutputDecision().stream()
+                        .map(ref -> model.getDecisionById(ref.getHref().substring(ref.getHref().indexOf('#') + 1)))
+                        .filter(Objects::nonNull)
+                        .map(DecisionNode::getName)
+                        .toList();
+            } else if (decisionName != null) {
+                this.node = model.getDecisionByName(decisionName);
+                this.outputDecisions = List.of(decisionName);
+            } else {
+                this.node = null;
+                this.outputDecisions = model.getDecisions().stream().map(DecisionNode::getName).toList();
+            }
+            this.requiredInputs = Requirements.forModel(model).inputsFor(decisionName, serviceName);
+            this.binder = InputBinder.forModel(model);
+        }
+
+        static PreparedTarget prepare(DMNRuntime runtime, DMNModel model, String decisionName, String serviceName) {
+            return new PreparedTarget(runtime, model, decisionName, serviceName, model.getName());
+        }
+
+        /** False when a named decision or service does not exist in the model; an empty decision name means all. */
+        boolean resolved() {
+            return node != null || ((decisionName == null || decisionName.isEmpty()) && serviceName == null);
+        }
+
+        /** Reads an input object, skipping fields the target never reads. */
+        Map<String, Object> bind(String json) throws IOException {
+            return binder.read(json, requiredInputs);
+        }
+
+        DMNResult evaluate(Map<String, Object> input) {
+            return DmnExecutor.evaluate(runtime, model, input, decisionName, serviceName, requiredInputs, metricsModel);
+        }
+    }
+
+    /**
+     * The prepared targets of one runtime, created on first request for each model,
+     * decision and service name. serve keeps one per runtime snapshot (and registry
+     * entry), so handles are dropped with the runtime on reload or eviction. Names that
+     * do not resolve are not kept, so arbitrary query parameters cannot grow the map.
+     */
+    static final class PreparedTargets {
+        private final DMNRuntime runtime;
+        private final String mainDmnFile;
+        private final String tenant;  // registry id, or null outside serve --registry
+        private final Map<List<String>, PreparedTarget> targets = new ConcurrentHashMap<>();
+
+        PreparedTargets(DMNRuntime runtime, String mainDmnFile, String tenant) {
+            this.runtime = runtime;
+            this.mainDmnFile = mainDmnFile;
+            this.tenant = tenant;
+        }
+
+        DMNRuntime runtime() {
+            return runtime;
+        }
+
+        // Tenants often share model names; keep their metrics apart
+        String metricsModel(DMNModel model) {
+            return tenant != null ? tenant + ":" + model.getName() : model.getName();
+        }
+
+        /** The metrics labels of every model in the runtime. */
+        List<String> metricsModels() {
+            return runtime.getModels().stream().map(this::metricsModel).toList();
+        }
+
+        /** The target, or null when no main model matches the model name. */
+        PreparedTarget get(String modelName, String decisionName, String serviceName) {
+            List<String> key = Arrays.asList(modelName, decisionName, serviceName);
+            PreparedTarget target = targets.get(key);
+            if (target != null) {
+                return target;
+            }
+            DMNModel model = findMainModel(runtime, mainDmnFile, modelName);
+            if (model == null) {
+                return null;
+            }
+            target = new PreparedTarget(runtime, model, decisionName, serviceName, metricsModel(model));
+            if (target.resolved()) {
+                targets.putIfAbsent(key, target);
+            }
+            return target;
+        }
+    }
+
+    /**
+     * Requirements-graph analysis of a model: for each decision and decision service,
+     * every node it transitively depends on, by kind. A decision reads the context values
+     * of all of these (input data, and decisions whose value is supplied rather than
+     * evaluated), so together they are exactly the inputs that can affect its result;
+     * everything else in an input payload can be skipped without being bound.
+     * Dependencies on imported models are bound through import-alias contexts, so a
+     * target reaching one is treated as reading the whole input.
+     */
+    static final class Requirements {
+        private static final Map<DMNModel, Requirements> BY_MODEL = Collections.synchronizedMap(new WeakHashMap<>());
+
+        /** Transitive requirements of one target; imported nodes are named "Model.node". */
+        record Closure(Set<String> inputs, Set<String> decisions, Set<String> knowledge,
+                       Set<String> contextNames, boolean imported) {
+
+            Map<String, Object> describe() {
+                Map<String, Object> out = new LinkedHashMap<>();
+                out.put("inputs", inputs);
+                out.put("decisions", decisions);
+                out.put("knowledge", knowledge);
+                if (imported) {
+                    out.put("imported", true);
+                }
+                return out;
+            }
+        }
+
+        private final Map<String, Closure> decisions = new HashMap<>();
+        private final Map<String, Closure> services = new HashMap<>();
+
+        private Requirements(DMNModel model) {
+            for (DecisionNode decision : model.getDecisions()) {
+                decisions.put(decision.getName(), closure(model, List.of(decision), Set.of()));
+            }
+            for (DecisionServiceNode service : model.getDecisionServices()) {
+                DecisionService ds = service.getDecisionService();
+                // Input decisions are parameters of the service: their values are taken, not evaluated
+                Set<DMNNode> parameters = new HashSet<>();
+                for (DMNElementReference ref : ds.getInputData()) {
+                    addIfPresent(parameters, model.getInputById(localId(ref)));
+                }
+                for (DMNElementReference ref : ds.getInputDecision()) {
+                    addIfPresent(parameters, model.getDecisionById(localId(ref)));
+                }
+                List<DMNNode> outputs = new ArrayList<>();
+                for (DMNElementReference ref : ds.getOutputDecision()) {
+                    addIfPresent(outputs, model.getDecisionById(localId(ref)));
+                }
+                List<DMNNode> roots = new ArrayList<>(parameters);
+                roots.addAll(outputs);
+                services.put(service.getName(), closure(model, roots, parameters));
+            }
+        }
+
+        static Requirements forModel(DMNModel model) {
+            return BY_MODEL.computeIfAbsent(model, Requirements::new);
+        }
+
+        Closure forDecision(String name) {
+            return decisions.get(name);
+        }
+
+        Closure forService(String name) {
+            return services.get(name);
+        }
+
+        /** Context names the target can read, or null when it may read any of them. */
+        Set<String> inputsFor(String decisionName, String serviceName) {
+            Closure closure = null;
+            if (serviceName != null && !serviceName.isEmpty()) {
+                closure = services.get(serviceName);
+            } else if (decisionName != null && !decisionName.isEmpty()) {
+                closure = decisions.get(decisionName);
+            }
+            return closure != null && !closure.imported() ? closure.contextNames() : null;
+        }
+
+        // Walks dependencies from the roots; roots other than parameters are the target itself
+        private static Closure closure(DMNModel model, Collection<? extends DMNNode> roots, Set<DMNNode> parameters) {
+            Set<String> inputs = new TreeSet<>();
+            Set<String> decisions = new TreeSet<>();
+            Set<String> knowledge = new TreeSet<>();
+            Set<String> contextNames = new HashSet<>();
+            boolean imported = false;
+
+            Set<DMNNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<DMNNode> pending = new ArrayDeque<>(roots);
+            while (!pending.isEmpty()) {
+                DMNNode node = pending.pop();
+                if (!visited.add(node)) {
+                    continue;
+                }
+                String name = node.getName();
+                if (!Objects.equals(node.getModelNamespace(), model.getNamespace())) {
+                    imported = true;
+                    name = node.getModelName() + "." + name;
+                }
+                contextNames.add(name);
+                if (node instanceof InputDataNode) {
+                    inputs.add(name);
+                } else if (node instanceof DecisionNode) {
+                    if (!roots.contains(node) || parameters.contains(node)) {
+                        decisions.add(name);
+                    }
+                } else if (node instanceof BusinessKnowledgeModelNode || node instanceof DecisionServiceNode) {
+                    knowledge.add(name);
+                }
+                if (!parameters.contains(node) && node instanceof DMNBaseNode base) {
+                    pending.addAll(base.getDependencies().values());
+                }
+            }
+            return new Closure(Collections.unmodifiableSet(inputs), Collections.unmodifiableSet(decisions),
+                Collections.unmodifiableSet(knowledge), Collections.unmodifiableSet(contextNames), imported);
+        }
+
+        private static String localId(DMNElementReference ref) {
+            return ref.getHref().substring(ref.getHref().indexOf('#') + 1);
+        }
+
+        private static void addIfPresent(Collection<DMNNode> nodes, DMNNode node) {
+            if (node != null) {
+                nodes.add(node);
+            }
+        }
+    }
+
+    /**
+     * Opt-in memoization of decision and decision service results (--result-cache).
+     * Entries are keyed by the model instance (so a reload never serves stale results),
+     * the target, and a SHA-256 over a canonical rendering of only the inputs the target
+     * depends on; the cached evaluation runs on exactly those inputs, so its result can
+     * be handed to any request that agrees on them. Bounded LRU with optional TTL.
+     *
+     * evaluateAll and targets reaching imported models are not cached, and models whose
+     * results can change between calls with the same inputs (now(), today(), external
+     * Java/PMML functions) are detected and always evaluated. A serve --watch reload or a
+     * registry eviction retires the old runtime's entries (retire).
+     */
+    static final class ResultCache {
+        // Clock reads and externally implemented FEEL functions, matched against expression text only
+        private static final Pattern NON_DETERMINISTIC = Pattern.compile("\\b(now|today)\\s*\\(|\\bexternal\\s*\\{");
+        private static final AtomicLong MODEL_SEQUENCE = new AtomicLong();
+
+        private final int maxEntries;
+        private final long ttlNanos;
+        private final LinkedHashMap<String, Entry> entries;
+        private final Map<DMNModel, String> modelKeys = new WeakHashMap<>();
+
+        private record Entry(DMNResult result, long expiresAt) {}
+
+        ResultCache(int maxEntries, long ttlSeconds) {
+            this.maxEntries = maxEntries;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+            this.entries = new LinkedHashMap<>(Math.min(maxEntries, 1 << 16), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                    return size() > ResultCache.this.maxEntries;
+                }
+            };
+        }
+
+        static ResultCache fromArgs(ParsedArgs parsed) {
+            return parsed.resultCacheSize > 0 ? new ResultCache(parsed.resultCacheSize, parsed.resultCacheTtl) : null;
+        }
+
+        DMNResult evaluate(DMNRuntime runtime, DMNModel model, Map<String, Object> inputContext,
+                           String decisionName, String serviceName, Set<String> required) {
+            String modelKey = required != null ? modelKey(runtime, model) : null;
+            if (modelKey == null) {
+                metrics.recordResultCacheLookup("bypass");
+                return evaluateUncached(runtime, model, inputContext, decisionName, serviceName);
+            }
+
+            Map<String, Object> relevant = new HashMap<>();
+            for (String name : required) {
+                if (inputContext.containsKey(name)) {
+                    relevant.put(name, inputContext.get(name));
+                }
+            }
+            String key = modelKey + (serviceName != null && !serviceName.isEmpty() ? "/service:" + serviceName : "/decision:" + decisionName)
+                + "/" + digest(relevant);
+
+            long now = System.nanoTime();
+            synchronized (entries) {
+                Entry entry = entries.get(key);
+                if (entry != null && (ttlNanos == 0 || now - entry.expiresAt < 0)) {
+                    metrics.recordResultCacheLookup("hit");
+                    return entry.result;
+                }
+            }
+            metrics.recordResultCacheLookup("miss");
+            DMNResult result = evaluateUncached(runtime, model, relevant, decisionName, serviceName);
+            synchronized (entries) {
+                // A reload or eviction may have retired the model while this evaluation ran
+                synchronized (modelKeys) {
+                    if (modelKey.equals(modelKeys.get(model))) {
+                        entries.put(key, new Entry(result, System.nanoTime() + ttlNanos));
+                    }
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Drops the cached results of a runtime that is being replaced or evicted, so they stop
+         * pinning its models, and bypasses the cache for requests still in flight against it.
+         */
+        void retire(DMNRuntime runtime) {
+            synchronized (entries) {
+                List<String> prefixes = new ArrayList<>();
+                synchronized (modelKeys) {
+                    for (DMNModel model : runtime.getModels()) {
+                        String previous = modelKeys.put(model, "");
+                        if (previous != null && !previous.isEmpty()) {
+                            prefixes.add(previous + "/");
+                        }
+                    }
+                }
+                if (!prefixes.isEmpty()) {
+                    entries.keySet().removeIf(key -> prefixes.stream().anyMatch(key::startsWith));
+                }
+            }
+        }
+
+        int size() {
+            synchronized (entries) {
+                return entries.size();
+            }
+        }
+
+        // Per-model-instance key prefix, or null for models that must not be cached (stored as "")
+        private String modelKey(DMNRuntime runtime, DMNModel model) {
+            synchronized (modelKeys) {
+                String key = modelKeys.computeIfAbsent(model, m -> isDeterministic(runtime, m)
+                    ? m.getNamespace() + "#" + MODEL_SEQUENCE.incrementAndGet()
+                    : "");
+                return key.isEmpty() ? null : key;
+            }
+        }
+
+        private static boolean isDeterministic(DMNRuntime runtime, DMNModel model) {
+            // Imported models contribute expressions too; check them all when there are imports
+            Collection<DMNModel> models = model.getDefinitions().getImport().isEmpty() ? List.of(model) : runtime.getModels();
+            for (DMNModel candidate : models) {
+                if (!isDeterministic(candidate.getDefinitions())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Walks the parsed model so descriptions and other documentation text cannot match
+        private static boolean isDeterministic(DMNModelInstrumentedBase element) {
+            if (element instanceof FunctionDefinition function
+                    && function.getKind() != null && function.getKind() != FunctionKind.FEEL) {
+                return false;
+            }
+            String text = element instanceof LiteralExpression literal ? literal.getText()
+                : element instanceof UnaryTests tests ? tests.getText()
+                : null;
+            if (text != null && NON_DETERMINISTIC.matcher(text).find()) {
+                return false;
+            }
+            for (DMNModelInstrumentedBase child : element.getChildren()) {
+                if (!isDeterministic(child)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String digest(Map<String, Object> inputs) {
+            StringBuilder canonical = new StringBuilder();
+            canonicalize(canonical, inputs);
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+                return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        // Unambiguous rendering: sorted keys, length-prefixed strings, type-tagged scalars
+        private static void canonicalize(StringBuilder out, Object value) {
+            if (value == null) {
+                out.append('~');
+            } else if (value instanceof Map<?, ?> map) {
+                TreeMap<String, Object> sorted = new TreeMap<>();
+                map.forEach((k, v) -> sorted.put(String.valueOf(k), v));
+                out.append('{');
+                sorted.forEach((k, v) -> {
+                    out.append(k.length()).append(':').append(k).append('=');
+                    canonicalize(out, v);
+                    out.append(',');
+                });
+                out.append('}');
+            } else if (value instanceof List<?> list) {
+                out.append('[');
+                for (Object item : list) {
+                    canonicalize(out, item);
+                    out.append(',');
+                }
+                out.append(']');
+            } else if (value instanceof String text) {
+                out.append('s').append(text.length()).append(':').append(text);
+            } else {
+                String text = value.toString();
+                out.append(value.getClass().getName()).append(text.length()).append(':').append(text);
+            }
+        }
+    }
+
+    /**
+     * Keeps the input and last result of one case so that an update re-evaluates only
+     * what it affects. A decision is invalidated when any field it transitively reads
+     * (per Requirements) changed; the values of the others are carried into the new
+     * context, where the engine treats them as already resolved and does not evaluate
+     * them again. Decisions that did not succeed, or that reach imported models, are
+     * always re-evaluated. Not thread-safe: one session per case.
+     */
+    static final class IncrementalSession {
+        private final DMNRuntime runtime;
+        private final DMNModel model;
+        private final Map<String, Object> inputs = new LinkedHashMap<>();
+        private DMNResult previous;
+        private List<String> reevaluated = List.of();
+
+        IncrementalSession(DMNRuntime runtime, DMNModel model) {
+            this.runtime = runtime;
+            this.model = model;
+        }
+
+        Map<String, Object> inputs() {
+            return Collections.unmodifiableMap(inputs);
+        }
+
+        /** Decisions evaluated by the last update, in evaluation order. */
+        List<String> reevaluated() {
+            return reevaluated;
+        }
+
+        DMNResult update(Map<String, Object> changes) {
+            Set<String> changed = new HashSet<>();
+            changes.forEach((name, value) -> {
+                if (!inputs.containsKey(name) || !Objects.equals(inputs.get(name), value)) {
+                    changed.add(name);
+                }
+                inputs.put(name, value);
+            });
+
+            DMNContext context = runtime.newContext();
+            inputs.forEach(context::set);
+
+            List<DMNDecisionResult> carried = new ArrayList<>();
+            if (previous != null) {
+                Requirements requirements = Requirements.forModel(model);
+                for (DMNDecisionResult decision : previous.getDecisionResults()) {
+                    Requirements.Closure closure = requirements.forDecision(decision.getDecisionName());
+                    if (decision.getEvaluationStatus() == DMNDecisionResult.DecisionEvaluationStatus.SUCCEEDED
+                            && !inputs.containsKey(decision.getDecisionName())
+                            && closure != null && !closure.imported()
+                            && Collections.disjoint(closure.contextNames(), changed)) {
+                        context.set(decision.getDecisionName(), decision.getResult());
+                        carried.add(decision);
+                    }
+                }
+            }
+
+            long start = System.nanoTime();
+            DMNResult result = runtime.evaluateAll(model, context);
+            metrics.recordEvaluation(model.getName(), null, null, System.nanoTime() - start, result);
+
+            // Carried decisions come back NOT_EVALUATED; restore their previous outcome
+            Set<String> carriedNames = new HashSet<>();
+            if (result instanceof DMNResultImpl impl) {
+                for (DMNDecisionResult decision : carried) {
+                    impl.addDecisionResult(decision);
+                    carriedNames.add(decision.getDecisionName());
+                }
+            }
+            reevaluated = result.getDecisionResults().stream()
+                .map(DMNDecisionResult::getDecisionName)
+                .filter(name -> !carriedNames.contains(name))
+                .toList();
+            previous = result;
+            return result;
+        }
+    }
+
+    /**
+     * Compiled model sets behind serve --registry. Each .dmn file under the root is the
+     * main model of one set, addressed by its path relative to the root without the
+     * extension ("acme/loan/v2"), and compiled on first use together with the models it
+     * imports (ImportGraph), with at most one load in flight per id. The heap a set
+     * retains is estimated from the size of its source files: interpreted sets, decision
+     * table indexes included, measured at 14-16x their XML. --compile's generated classes
+     * are not covered (measured at 300-900x), so budgets under-count in that mode. When
+     * the total exceeds the budget, the least recently used sets are dropped. Requests
+     * already holding an evicted set finish on it, its per-model caches (InputBinder,
+     * Requirements) go with it, and its --result-cache entries are dropped so they don't
+     * keep it reachable. Evaluation metrics carry the id, since tenants often share model
+     * names, and are unregistered with the set.
+     */
+    static final class ModelRegistry {
+        private static final int RETAINED_BYTES_PER_SOURCE_BYTE = 16;
+
+        record Entry(String id, Path file, PreparedTargets targets, byte[] info, long retainedBytes) {}
+
+        private final Path root;
+        private final ParsedArgs parsed;
+        private final EvaluationProfiler profiler;
+        private final Map<String, Entry> loaded = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<String, CompletableFuture<Entry>> loading = new ConcurrentHashMap<>();
+        private long retainedBytes;
+        private final LongAdder loads = new LongAdder();
+        private final LongAdder evictions = new LongAdder();
+
+        ModelRegistry(Path root, ParsedArgs parsed, EvaluationProfiler profiler) {
+            this.root = root.toAbsolutePath().normalize();
+            this.parsed = parsed;
+            this.profiler = profiler;
+        }
+
+        /** The loaded set for id, compiling it if needed; null when no such model file exists. */
+        Entry get(String id) throws IOException {
+            synchronized (loaded) {
+                Entry entry = loaded.get(id);
+                if (entry != null) {
+                    return entry;
+                }
+            }
+            Path file = fileFor(id);
+            if (file == null) {
+                return null;
+            }
+            // One load per id; callers of other ids don't wait for it
+            CompletableFuture<Entry> load = new CompletableFuture<>();
+            CompletableFuture<Entry> inFlight = loading.putIfAbsent(id, load);
+            if (inFlight != null) {
+                return await(inFlight);
+            }
+            try {
+                Entry entry;
+                synchronized (loaded) {
+                    // Finished between the first lookup and claiming the load
+                    entry = loaded.get(id);
+                }
+                if (entry == null) {
+                    entry = load(id, file);
+                }
+                load.complete(entry);
+                return entry;
+            } catch (Throwable e) {
+                load.completeExceptionally(e);
+                throw e;
+            } finally {
+                loading.remove(id, load);
+            }
+        }
+
+        private Entry load(String id, Path file) throws IOException {
+            Set<Path> dmnFiles = resolveDmnFiles(file.toString(), parsed.importPaths, parsed.autoImport, null);
+            DMNRuntime runtime = createRuntime(dmnFiles, parsed);
+            if (profiler != null) {
+                runtime.addListener(profiler);
+            }
+            byte[] info = mapper.writeValueAsBytes(buildModelInfo(runtime, parsed.compile));
+            long retained = 0;
+            for (Path dmnFile : dmnFiles) {
+                retained += Files.size(dmnFile) * RETAINED_BYTES_PER_SOURCE_BYTE;
+            }
+            Entry entry = new Entry(id, file, new PreparedTargets(runtime, file.toString(), id), info, retained);
+            metrics.admitModels(entry.targets().metricsModels());
+            loads.increment();
+            synchronized (loaded) {
+                loaded.put(id, entry);
+                retainedBytes += retained;
+                evictOverBudget(id);
+            }
+            return entry;
+        }
+
+        private static Entry await(CompletableFuture<Entry> load) throws IOException {
+            try {
+                return load.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                throw e;
+            }
+        }
+
+        // Caller holds the lock on loaded; the set just loaded is never evicted
+        private void evictOverBudget(String keep) {
+            if (parsed.memoryBudget <= 0) {
+                return;
+            }
+            Iterator<Entry> eldest = loaded.values().iterator();
+            while (retainedBytes > parsed.memoryBudget && eldest.hasNext()) {
+                Entry entry = eldest.next();
+                if (!entry.id().equals(keep)) {
+                    eldest.remove();
+                    retainedBytes -= entry.retainedBytes();
+                    evictions.increment();
+                    if (resultCache != null) {
+                        resultCache.retire(entry.targets().runtime());
+                    }
+                    metrics.retireModels(entry.targets().metricsModels());
+                }
+            }
+        }
+
+        /**
+         * Compiles the first model file and drops it, so engine-wide state created on
+         * first use (parser caches, built-in function tables) isn't built on a request.
+         */
+        void warmUp() throws IOException {
+            Optional<Path> first;
+            try (Stream<Path> walk = Files.walk(root)) {
+                first = walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn")).sorted().findFirst();
+            }
+            if (first.isPresent()) {
+                createRuntime(resolveDmnFiles(first.get().toString(), parsed.importPaths, parsed.autoImport, null), parsed);
+            }
+        }
+
+        /** Every model file under the root, with its header and, if loaded, its retained heap. */
+        List<Map<String, Object>> list() throws IOException {
+            Map<String, Entry> snapshot;
+            synchronized (loaded) {
+                snapshot = new HashMap<>(loaded);
+            }
+            List<Path> files;
+            try (Stream<Path> walk = Files.walk(root)) {
+                files = walk.filter(f -> f.toString().toLowerCase().endsWith(".dmn")).sorted().toList();
+            }
+            List<Map<String, Object>> models = new ArrayList<>();
+            for (Path file : files) {
+                ImportGraph.Header header = ImportGraph.read(file);
+                if (header == null) {
+                    continue;
+                }
+                String id = idOf(file);
+                Map<String, Object> model = new LinkedHashMap<>();
+                model.put("id", id);
+                model.put("name", header.name());
+                model.put("namespace", header.namespace());
+                Entry entry = snapshot.get(id);
+                model.put("loaded", entry != null);
+                if (entry != null) {
+                    model.put("retainedBytes", entry.retainedBytes());
+                }
+                models.add(model);
+            }
+            return models;
+        }
+
+        int size() {
+            synchronized (loaded) {
+                return loaded.size();
+            }
+        }
+
+        long retainedBytes() {
+            synchronized (loaded) {
+                return retainedBytes;
+            }
+        }
+
+        long loads() {
+            return loads.sum();
+        }
+
+        long evictions() {
+            return evictions.sum();
+        }
+
+        // Resolves an id inside the root only, so ids cannot address other files
+        private Path fileFor(String id) {
+            for (String extension : List.of(".dmn", ".DMN")) {
+                Path file = root.resolve(id + extension).normalize();
+                if (file.startsWith(root) && Files.isRegularFile(file)) {
+                    return file;
+                }
+            }
+            return null;
+        }
+
+        private String idOf(Path file) {
+            String relative = root.relativize(file).toString().replace(File.separatorChar, '/');
+            return relative.substring(0, relative.length() - ".dmn".length());
+        }
+    }
+
+    /**
+     * Immutable runtime snapshot served by serve; replaced as a whole on reload.
+     */
+    static final class ServedModel {
+        final DMNRuntime runtime;
+        final PreparedTargets targets;
+        final byte[] info;
+
+        ServedModel(DMNRuntime runtime, String mainDmnFile, byte[] info) {
+            this.runtime = runtime;
+            this.targets = new PreparedTargets(runtime, mainDmnFile, null);
+            this.info = info;
+        }
+    }
+
+    /**
+     * Background watcher behind serve --watch. WatchService only watches directories, so it
+     * registers the main file's directory and every --import path (or its directory), and
+     * rebuilds the runtime from scratch when a .dmn file in them changes. File discovery is
+     * repeated on each rebuild, so added and removed imports are picked up as well.
+     * A rebuild that fails or yields model errors is reported on stderr and the
+     * current runtime stays in service.
+     */
+    static class ModelWatcher implements Runnable {
+        // Editors often write a file in several steps; wait for the directory to go quiet
+        private static final long DEBOUNCE_MILLIS = 250;
+
+        private final ParsedArgs parsed;
+        private final AtomicReference<ServedModel> current;
+        private final EvaluationProfiler profiler;
+        private final WatchService watchService;
+
+        private ModelWatcher(ParsedArgs parsed, AtomicReference<ServedModel> current,
+                             EvaluationProfiler profiler, WatchService watchService) {
+            this.parsed = parsed;
+            this.current = current;
+            this.profiler = profiler;
+            this.watchService = watchService;
+        }
+
+        static void start(ParsedArgs parsed, AtomicReference<ServedModel> current,
+                          EvaluationProfiler profiler) throws IOException {
+            WatchService watchService = FileSystems.getDefault().newWatchService();
+            for (Path dir : watchedDirectories(parsed)) {
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            }
+            Thread thread = new Thread(new ModelWatcher(parsed, current, profiler, watchService), "dmn-model-watcher");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private static Set<Path> watchedDirectories(ParsedArgs parsed) {
+            Set<Path> dirs = new LinkedHashSet<>();
+            dirs.add(Path.of(parsed.mainDmnFile).toAbsolutePath().getParent());
+            for (String importPath : parsed.importPaths) {
+                Path p = Path.of(importPath).toAbsolutePath();
+                if (Files.isDirectory(p)) {
+                    dirs.add(p);
+                } else if (p.getParent() != null) {
+                    dirs.add(p.getParent());
+                }
+            }
+            dirs.remove(null);
+            return dirs;
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    if (!drain(watchService.take())) {
+                        continue;
+                    }
+                    WatchKey key;
+                    while ((key = watchService.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                        drain(key);
+                    }
+                    reload();
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // Shutting down
+            }
+        }
+
+        // Returns whether the key carried a change that warrants a rebuild
+        private static boolean drain(WatchKey key) {
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || event.context().toString().toLowerCase().endsWith(".dmn")) {
+                    relevant = true;
+                }
+            }
+            key.reset();
+            return relevant;
+        }
+
+        private void reload() {
+            long start = System.nanoTime();
+            try {
+                DMNRuntime runtime = createRuntime(parsed);
+                DMNModel mainModel = findMainModel(runtime, parsed.mainDmnFile, parsed.modelName);
+                if (mainModel == null) {
+                    rejected("could not find main DMN model");
+                    return;
+                }
+                for (DMNModel model : runtime.getModels()) {
+                    if (model.hasErrors()) {
+                        rejected("model '" + model.getName() + "' has errors: "
+                            + mapper.writeValueAsString(buildErrors(model.getMessages()).get("errors")));
+                        return;
+                    }
+                }
+                if (profiler != null) {
+                    runtime.addListener(profiler);
+                }
+                ServedModel previous = current.getAndSet(new ServedModel(runtime, parsed.mainDmnFile,
+                    mapper.writeValueAsBytes(buildModelInfo(runtime, parsed.compile))));
+                if (resultCache != null) {
+                    resultCache.retire(previous.runtime);
+                }
+                metrics.recordReload(true);
+                System.err.println("Reloaded model '" + mainModel.getName() + "' in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+            } catch (Exception e) {
+                rejected(e.getMessage());
+            }
+        }
+
+        private static void rejected(String reason) {
+            metrics.recordReload(false);
+            System.err.println("Reload rejected, keeping previous model: " + reason);
+        }
+    }
+
+    /**
+     * Persistent cache of compilation outcomes, keyed by a SHA-256 over the content
+     * and path of every resolved DMN file plus the options that affect compilation.
+     *
+     * KIE cannot restore a compiled DMNModel from disk (its externalized form is the
+     * DMN XML, recompiled on read), so what is cached is everything derived from a
+     * compilation that can be reused without one: the model metadata and compile
+     * messages rendered by `info`. Unchanged model sets answer `info` without
+     * building a runtime. Cache I/O failures are ignored, never fatal.
+     */
+    static class ModelCache {
+        private static final String FORMAT_VERSION = "kie-10.1.0/3";
+
+        private final Path dir;
+
+        ModelCache(Path dir) {
+            this.dir = dir;
+        }
+
+        static ModelCache fromArgs(ParsedArgs parsed) {
+            if (parsed.cacheDir == null) {
+                return null;
+            }
+            return new ModelCache(parsed.cacheDir.isEmpty() ? defaultDir() : Path.of(parsed.cacheDir));
+        }
+
+        static Path defaultDir() {
+            String xdg = System.getenv("XDG_CACHE_HOME");
+            Path base = xdg != null && !xdg.isEmpty() ? Path.of(xdg) : Path.of(System.getProperty("user.home"), ".cache");
+            return base.resolve("dmn-executor");
+        }
+
+        String key(Set<Path> dmnFiles, ParsedArgs parsed) throws IOException {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update((FORMAT_VERSION + "|typecheck=" + parsed.runtimeTypeCheck + "|compile=" + parsed.compile
+                    + "|index=" + parsed.indexTables)
+                    .getBytes(StandardCharsets.UTF_8));
+                for (Path dmnFile : dmnFiles) {
+                    digest.update(("|" + dmnFile + "|").getBytes(StandardCharsets.UTF_8));
+                    digest.update(Files.readAllBytes(dmnFile));
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Map<String, Object> read(String key, String entry) {
+            Path file = dir.resolve(key).resolve(entry);
+            Map<String, Object> value = null;
+            if (Files.isRegularFile(file)) {
+                try {
+                    value = mapper.readValue(file.toFile(), new TypeReference<Map<String, Object>>() {});
+                } catch (IOException e) {
+                    // Corrupt or partial entry: treat as a miss and let it be rewritten
+                }
+            }
+            metrics.recordCacheLookup(value != null);
+            return value;
+        }
+
+        void write(String key, String entry, Map<String, Object> value) {
+            try {
+                Path entryDir = Files.createDirectories(dir.resolve(key));
+                // Write to a temp file and move so concurrent readers never see a partial entry
+                Path tmp = Files.createTempFile(entryDir, entry, ".tmp");
+                mapper.writeValue(tmp.toFile(), value);
+                Files.move(tmp, entryDir.resolve(entry), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                System.err.println("Warning: could not write model cache: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runtime event listener behind --profile. Aggregates, per node, how often it was
+     * evaluated, inclusive and self wall time (self excludes nested decisions, BKMs and
+     * decision tables) and, for decision tables, how often each rule matched.
+     * Safe for concurrent evaluations: timing frames are per thread, totals are adders.
+     */
+    static class EvaluationProfiler implements DMNRuntimeEventListener {
+
+        static class NodeStats {
+            final String node;
+            final String type;
+            final LongAdder count = new LongAdder();
+            final LongAdder totalNanos = new LongAdder();
+            final LongAdder selfNanos = new LongAdder();
+            final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+            final Map<Integer, LongAdder> ruleMatches = new ConcurrentSkipListMap<>();
+
+            NodeStats(String node, String type) {
+                this.node = node;
+                this.type = type;
+            }
+        }
+
+        private static class Frame {
+            final long start = System.nanoTime();
+            long childNanos;
+        }
+
+        private final Map<String, NodeStats> stats = new ConcurrentHashMap<>();
+        private final ThreadLocal<Deque<Frame>> frames = ThreadLocal.withInitial(ArrayDeque::new);
+
+        static EvaluationProfiler attach(DMNRuntime runtime) {
+            EvaluationProfiler profiler = new EvaluationProfiler();
+            runtime.addListener(profiler);
+            return profiler;
+        }
+
+        private void enter() {
+            frames.get().push(new Frame());
+        }
+
+        private NodeStats exit(String type, String node) {
+            Deque<Frame> stack = frames.get();
+            Frame frame = stack.pop();
+            long elapsed = System.nanoTime() - frame.start;
+            if (!stack.isEmpty()) {
+                stack.peek().childNanos += elapsed;
+            }
+            NodeStats nodeStats = stats.computeIfAbsent(type + ":" + node, k -> new NodeStats(node, type));
+            nodeStats.count.increment();
+            nodeStats.totalNanos.add(elapsed);
+            nodeStats.selfNanos.add(elapsed - frame.childNanos);
+            nodeStats.maxNanos.accumulate(elapsed);
+            return nodeStats;
+        }
+
+        @Override
+        public void beforeEvaluateDecision(BeforeEvaluateDecisionEvent event) {
+            enter();
+        }
+
+        @Override
+        public void afterEvaluateDecision(AfterEvaluateDecisionEvent event) {
+            exit("decision", event.getDecision().getName());
+        }
+
+        @Override
+        public void beforeInvokeBKM(BeforeInvokeBKMEvent event) {
+            enter();
+        }
+
+        @Override
+        public void afterInvokeBKM(AfterInvokeBKMEvent event) {
+            exit("bkm", event.getBusinessKnowledgeModel().getName());
+        }
+
+        @Override
+        public void beforeEvaluateDecisionService(BeforeEvaluateDecisionServiceEvent event) {
+            enter();
+        }
+
+        @Override
+        public void afterEvaluateDecisionService(AfterEvaluateDecisionServiceEvent event) {
+            exit("decisionService", event.getDecisionService().getName());
+        }
+
+        @Override
+        public void beforeEvaluateDecisionTable(BeforeEvaluateDecisionTableEvent event) {
+            enter();
+        }
+
+        @Override
+        public void afterEvaluateDecisionTable(AfterEvaluateDecisionTableEvent event) {
+            NodeStats table = exit("decisionTable", event.getDecisionTableName());
+            if (event.getMatches() != null) {
+                for (Integer rule : event.getMatches()) {
+                    table.ruleMatches.computeIfAbsent(rule, r -> new LongAdder()).increment();
+                }
+            }
+        }
+
+        /**
+         * Nodes ordered by self time, most expensive first.
+         */
+        List<Map<String, Object>> snapshot() {
+            return stats.values().stream()
+                .sorted(Comparator.comparingLong((NodeStats n) -> n.selfNanos.sum()).reversed())
+                .map(n -> {
+                    long count = n.count.sum();
+                    Map<String, Object> entry = new LinkedHashMap<>();
+                    entry.put("node", n.node);
+                    entry.put("type", n.type);
+                    entry.put("count", count);
+                    entry.put("totalMs", round(n.totalNanos.sum() / 1e6));
+                    entry.put("selfMs", round(n.selfNanos.sum() / 1e6));
+                    entry.put("meanUs", round(count == 0 ? 0 : n.totalNanos.sum() / 1e3 / count));
+                    entry.put("maxUs", round(n.maxNanos.get() / 1e3));
+                    if (!n.ruleMatches.isEmpty()) {
+                        Map<String, Long> matches = new LinkedHashMap<>();
+                        n.ruleMatches.forEach((rule, hits) -> matches.put(rule.toString(), hits.sum()));
+                        entry.put("ruleMatches", matches);
+                    }
+                    return entry;
+                })
+                .toList();
+        }
+    }
+
+    public interface ExecutorStatsMXBean {
+        long getEvaluations();
+        long getEvaluationErrors();
+        long getCompilations();
+        double getLastCompileMillis();
+        double getTotalCompileMillis();
+        long getCacheHits();
+        long getCacheMisses();
+        double getCacheHitRate();
+        long getResultCacheHits();
+        long getResultCacheMisses();
+        long getResultCacheBypassed();
+        long getModelReloads();
+        long getRejectedModelReloads();
+        int getRegistryModels();
+        long getRegistryRetainedBytes();
+        long getRegistryEvictions();
+    }
+
+    public interface EvaluationStatsMXBean {
+        String getModel();
+        String getKind();
+        String getTarget();
+        long getCount();
+        long getErrorCount();
+        double getMeanMicros();
+        double getMaxMicros();
+    }
+
+    /**
+     * Process-wide operational metrics, recorded at the shared entry points
+     * (evaluate, createRuntime, ModelCache) so every command and endpoint is counted.
+     * Exposed in Prometheus text format by serve (GET /metrics) and as JMX MBeans
+     * under the "dmn.executor" domain.
+     */
+    static final class Metrics implements ExecutorStatsMXBean {
+        // Latency histogram upper bounds, in seconds
+        static final double[] BUCKETS = {0.0001, 0.00025, 0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5};
+
+        private final Map<List<String>, EvaluationStats> evaluations = new ConcurrentHashMap<>();
+        private final Map<List<String>, LongAdder> errorsByType = new ConcurrentHashMap<>();
+        private final LongAdder compilations = new LongAdder();
+        private final LongAdder compileNanos = new LongAdder();
+        private volatile long lastCompileNanos;
+        private final LongAdder cacheHits = new LongAdder();
+        private final LongAdder cacheMisses = new LongAdder();
+        private final LongAdder reloads = new LongAdder();
+        private final Map<String, LongAdder> resultCacheLookups = new ConcurrentHashMap<>();
+        private final LongAdder rejectedReloads = new LongAdder();
+        private final Set<String> retiredModels = ConcurrentHashMap.newKeySet();
+        private boolean mbeansRegistered;
+
+        static final class EvaluationStats implements EvaluationStatsMXBean {
+            final String model;
+            final String kind;
+            final String target;
+            final LongAdder count = new LongAdder();
+            final LongAdder errors = new LongAdder();
+            final LongAdder sumNanos = new LongAdder();
+            final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+            final LongAdder[] buckets = new LongAdder[BUCKETS.length];
+
+            EvaluationStats(String model, String kind, String target) {
+                this.model = model;
+                this.kind = kind;
+                this.target = target;
+                Arrays.setAll(buckets, i -> new LongAdder());
+            }
+
+            void record(long nanos, boolean failed) {
+                count.increment();
+                sumNanos.add(nanos);
+                maxNanos.accumulate(nanos);
+                if (failed) {
+                    errors.increment();
+                }
+                double seconds = nanos / 1e9;
+                for (int i = 0; i < BUCKETS.length; i++) {
+                    if (seconds <= BUCKETS[i]) {
+                        buckets[i].increment();
+                        break;
+                    }
+                }
+            }
+
+            @Override public String getModel() { return model; }
+            @Override public String getKind() { return kind; }
+            @Override public String getTarget() { return target; }
+            @Override public long getCount() { return count.sum(); }
+            @Override public long getErrorCount() { return errors.sum(); }
+            @Override public double getMeanMicros() { long n = count.sum(); return n == 0 ? 0 : round(sumNanos.sum() / 1e3 / n); }
+            @Override public double getMaxMicros() { return round(maxNanos.get() / 1e3); }
+        }
+
+        void recordEvaluation(String model, String decisionName, String serviceName, long nanos, DMNResult result) {
+            if (retiredModels.contains(model)) {
+                return;
+            }
+            String kind;
+            String target;
+            if (serviceName != null && !serviceName.isEmpty()) {
+                kind = "service";
+                target = serviceName;
+            } else if (decisionName != null && !decisionName.isEmpty()) {
+                kind = "decision";
+                target = decisionName;
+            } else {
+                kind = "all";
+                target = "";
+            }
+            EvaluationStats stats = evaluations.computeIfAbsent(List.of(model, kind, target), k -> {
+                EvaluationStats created = new EvaluationStats(k.get(0), k.get(1), k.get(2));
+                registerEvaluationMBean(created);
+                return created;
+            });
+            boolean failed = result == null || result.hasErrors();
+            stats.record(nanos, failed);
+
+            if (result == null) {
+                errorsByType.computeIfAbsent(List.of(model, "EXCEPTION"), k -> new LongAdder()).increment();
+            } else if (failed) {
+                for (DMNMessage message : result.getMessages(DMNMessage.Severity.ERROR)) {
+                    errorsByType.computeIfAbsent(List.of(model, message.getMessageType().toString()),
+                        k -> new LongAdder()).increment();
+                }
+            }
+            // Retired while this evaluation ran: drop what it may have re-created
+            if (retiredModels.contains(model)) {
+                retireModels(List.of(model));
+            }
+        }
+
+        /** Drops the series and MBeans of models no longer served (evicted registry sets). */
+        void retireModels(Collection<String> models) {
+            retiredModels.addAll(models);
+            for (List<String> key : new ArrayList<>(evaluations.keySet())) {
+                EvaluationStats stats = models.contains(key.get(0)) ? evaluations.remove(key) : null;
+                if (stats != null) {
+                    unregisterEvaluationMBean(stats);
+                }
+            }
+            errorsByType.keySet().removeIf(key -> models.contains(key.get(0)));
+        }
+
+        /** Resumes recording for models served again (a registry set loaded after eviction). */
+        void admitModels(Collection<String> models) {
+            retiredModels.removeAll(models);
+        }
+
+        void recordCompilation(long nanos) {
+            compilations.increment();
+            compileNanos.add(nanos);
+            lastCompileNanos = nanos;
+        }
+
+        void recordCacheLookup(boolean hit) {
+            (hit ? cacheHits : cacheMisses).increment();
+        }
+
+        void recordResultCacheLookup(String outcome) {
+            resultCacheLookups.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        }
+
+        long resultCacheLookups(String outcome) {
+            LongAdder count = resultCacheLookups.get(outcome);
+            return count != null ? count.sum() : 0;
+        }
+
+        void recordReload(boolean accepted) {
+            (accepted ? reloads : rejectedReloads).increment();
+        }
+
+        @Override public long getEvaluations() { return evaluations.values().stream().mapToLong(EvaluationStats::getCount).sum(); }
+        @Override public long getEvaluationErrors() { return evaluations.values().stream().mapToLong(EvaluationStats::getErrorCount).sum(); }
+        @Override public long getCompilations() { return compilations.sum(); }
+        @Override public double getLastCompileMillis() { return round(lastCompileNanos / 1e6); }
+        @Override public double getTotalCompileMillis() { return round(compileNanos.sum() / 1e6); }
+        @Override public long getCacheHits() { return cacheHits.sum(); }
+        @Override public long getCacheMisses() { return cacheMisses.sum(); }
+        @Override public long getResultCacheHits() { return resultCacheLookups("hit"); }
+        @Override public long getResultCacheMisses() { return resultCacheLookups("miss"); }
+        @Override public long getResultCacheBypassed() { return resultCacheLookups("bypass"); }
+        @Override public long getModelReloads() { return reloads.sum(); }
+        @Override public long getRejectedModelReloads() { return rejectedReloads.sum(); }
+        @Override public int getRegistryModels() { ModelRegistry r = registry; return r != null ? r.size() : 0; }
+        @Override public long getRegistryRetainedBytes() { ModelRegistry r = registry; return r != null ? r.retainedBytes() : 0; }
+        @Override public long getRegistryEvictions() { ModelRegistry r = registry; return r != null ? r.evictions() : 0; }
+
+        @Override
+        public double getCacheHitRate() {
+            long lookups = cacheHits.sum() + cacheMisses.sum();
+            return lookups == 0 ? 0 : round((double) cacheHits.sum() / lookups);
+        }
+
+        synchronized void registerMBeans() {
+            if (mbeansRegistered) {
+                return;
+            }
+            mbeansRegistered = true;
+            registerMBean(this, "dmn.executor:type=Executor");
+            evaluations.values().forEach(this::registerEvaluationMBean);
+        }
+
+        private synchronized void registerEvaluationMBean(EvaluationStats stats) {
+            if (mbeansRegistered) {
+                registerMBean(stats, evaluationMBeanName(stats));
+            }
+        }
+
+        private synchronized void unregisterEvaluationMBean(EvaluationStats stats) {
+            if (mbeansRegistered) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(evaluationMBeanName(stats)));
+                } catch (InstanceNotFoundException e) {
+                    // Registration failed earlier; nothing to remove
+                } catch (JMException e) {
+                    System.err.println("Warning: could not unregister MBean " + evaluationMBeanName(stats) + ": " + e.getMessage());
+                }
+            }
+        }
+
+        private static String evaluationMBeanName(EvaluationStats stats) {
+            return "dmn.executor:type=Evaluation,model=" + ObjectName.quote(stats.model)
+                + ",kind=" + stats.kind + ",target=" + ObjectName.quote(stats.target);
+        }
+
+        private static void registerMBean(Object mbean, String name) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, new ObjectName(name));
+            } catch (JMException e) {
+                System.err.println("Warning: could not register MBean " + name + ": " + e.getMessage());
+            }
+        }
+
+        String toPrometheus() {
+            StringBuilder out = new StringBuilder();
+
+            out.append("# HELP dmn_evaluations_total Evaluations by model and target.\n");
+            out.append("# TYPE dmn_evaluations_total counter\n");
+            evaluations.values().forEach(e -> sample(out, "dmn_evaluations_total", labels(e), e.getCount()));
+
+            out.append("# HELP dmn_evaluation_failures_total Evaluations whose result had errors.\n");
+            out.append("# TYPE dmn_evaluation_failures_total counter\n");
+            evaluations.values().forEach(e -> sample(out, "dmn_evaluation_failures_total", labels(e), e.getErrorCount()));
+
+            out.append("# HELP dmn_evaluation_duration_seconds Evaluation latency.\n");
+            out.append("# TYPE dmn_evaluation_duration_seconds histogram\n");
+            for (EvaluationStats e : evaluations.values()) {
+                long cumulative = 0;
+                for (int i = 0; i < BUCKETS.length; i++) {
+                    cumulative += e.buckets[i].sum();
+                    sample(out, "dmn_evaluation_duration_seconds_bucket", labels(e) + ",le=\"" + BUCKETS[i] + "\"", cumulative);
+                }
+                sample(out, "dmn_evaluation_duration_seconds_bucket", labels(e) + ",le=\"+Inf\"", e.getCount());
+                sample(out, "dmn_evaluation_duration_seconds_sum", labels(e), e.sumNanos.sum() / 1e9);
+                sample(out, "dmn_evaluation_duration_seconds_count", labels(e), e.getCount());
+            }
+
+            out.append("# HELP dmn_evaluation_errors_total Error messages by model and DMN message type.\n");
+            out.append("# TYPE dmn_evaluation_errors_total counter\n");
+            errorsByType.forEach((k, v) -> sample(out, "dmn_evaluation_errors_total",
+                "model=\"" + escape(k.get(0)) + "\",type=\"" + escape(k.get(1)) + "\"", v.sum()));
+
+            out.append("# HELP dmn_model_compile_seconds Time spent building DMN runtimes.\n");
+            out.append("# TYPE dmn_model_compile_seconds summary\n");
+            sample(out, "dmn_model_compile_seconds_sum", null, compileNanos.sum() / 1e9);
+            sample(out, "dmn_model_compile_seconds_count", null, compilations.sum());
+
+            out.append("# HELP dmn_model_cache_lookups_total Model cache lookups by result.\n");
+            out.append("# TYPE dmn_model_cache_lookups_total counter\n");
+            sample(out, "dmn_model_cache_lookups_total", "result=\"hit\"", cacheHits.sum());
+            sample(out, "dmn_model_cache_lookups_total", "result=\"miss\"", cacheMisses.sum());
+
+            out.append("# HELP dmn_result_cache_lookups_total Result cache lookups by outcome (bypass: not cacheable).\n");
+            out.append("# TYPE dmn_result_cache_lookups_total counter\n");
+            resultCacheLookups.forEach((outcome, count) ->
+                sample(out, "dmn_result_cache_lookups_total", "result=\"" + outcome + "\"", count.sum()));
+            ResultCache cache = resultCache;
+            if (cache != null) {
+                out.append("# HELP dmn_result_cache_entries Entries in the result cache.\n");
+                out.append("# TYPE dmn_result_cache_entries gauge\n");
+                sample(out, "dmn_result_cache_entries", null, cache.size());
+            }
+
+            out.append("# HELP dmn_model_reloads_total Hot reloads by outcome (serve --watch).\n");
+            out.append("# TYPE dmn_model_reloads_total counter\n");
+            sample(out, "dmn_model_reloads_total", "result=\"accepted\"", reloads.sum());
+            sample(out, "dmn_model_reloads_total", "result=\"rejected\"", rejectedReloads.sum());
+
+            ModelRegistry models = registry;
+            if (models != null) {
+                out.append("# HELP dmn_registry_models Model sets loaded in the registry (serve --registry).\n");
+                out.append("# TYPE dmn_registry_models gauge\n");
+                sample(out, "dmn_registry_models", null, models.size());
+                out.append("# HELP dmn_registry_retained_bytes Estimated heap retained by loaded model sets.\n");
+                out.append("# TYPE dmn_registry_retained_bytes gauge\n");
+                sample(out, "dmn_registry_retained_bytes", null, models.retainedBytes());
+                out.append("# HELP dmn_registry_loads_total Model sets compiled on demand.\n");
+                out.append("# TYPE dmn_registry_loads_total counter\n");
+                sample(out, "dmn_registry_loads_total", null, models.loads());
+                out.append("# HELP dmn_registry_evictions_total Model sets evicted to stay within the memory budget.\n");
+                out.append("# TYPE dmn_registry_evictions_total counter\n");
+                sample(out, "dmn_registry_evictions_total", null, models.evictions());
+            }
+
+            return out.toString();
+        }
+
+        private static String labels(EvaluationStats e) {
+            return "model=\"" + escape(e.model) + "\",kind=\"" + e.kind + "\",target=\"" + escape(e.target) + "\"";
+        }
+
+        private static void sample(StringBuilder out, String name, String labels, Number value) {
+            out.append(name);
+            if (labels != null) {
+                out.append('{').append(labels).append('}');
+            }
+            out.append(' ').append(value).append('\n');
+        }
+
+        private static String escape(String value) {
+            return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+        }
     }
 
     static class ParsedArgs {
         String mainDmnFile;
         String inputJson = "{}";
+        String inputFile;
         String decisionName;
         String serviceName;
         String modelName;
         List<String> importPaths = new ArrayList<>();
         boolean autoImport = true;
         boolean runtimeTypeCheck = true;
+        String host = "127.0.0.1";
+        int port = 8080;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int parallel = 1;
+        boolean ordered = true;
+        int iterations = 10_000;
+        int warmup = 2_000;
+        int loops = 1;  // replay: passes over the recorded inputs
+        double rate = 0;  // replay: target evaluations/sec; 0: as fast as possible
+        String compareDmnFile;  // replay: second model version to diff results against
+        String cacheDir;  // null: cache disabled, "": default location
+        boolean compile = false;
+        boolean indexTables = true;
+        boolean profile = false;
+        boolean watch = false;
+        boolean compact = false;
+        String format;  // batch input format; null: by file extension
+        int resultCacheSize = 0;  // 0: result cache disabled
+        long resultCacheTtl = 0;  // seconds; 0: no expiry
+        String registryDir;  // serve: model registry root instead of a main file
+        long memoryBudget = 0;  // bytes of loaded registry models; 0: unbounded
     }
 
+    // Commands whose second positional argument is an input file rather than inline JSON
+    private static final Set<String> STREAMING_COMMANDS = Set.of("batch", "bench", "session", "replay");
+
     private static ParsedArgs parseArgs(String[] args) throws IOException {
         ParsedArgs parsed = new ParsedArgs();
         
@@ -457,6 +4137,22 @@ public class DmnExecutor {
                 parsed.autoImport = false;
             } else if (arg.equals("--no-typecheck")) {
                 parsed.runtimeTypeCheck = false;
+            } else if (arg.equals("--compact")) {
+                parsed.compact = true;
+            } else if (arg.equals("--profile")) {
+                parsed.profile = true;
+            } else if (arg.equals("--compile")) {
+                parsed.compile = true;
+            } else if (arg.equals("--no-index")) {
+                parsed.indexTables = false;
+            } else if (arg.equals("--cache")) {
+                if (parsed.cacheDir == null) {
+                    parsed.cacheDir = "";
+                }
+            } else if (arg.equals("--cache-dir")) {
+                if (i + 1 < args.length) {
+                    parsed.cacheDir = args[++i];
+                }
             } else if (arg.equals("--model") || arg.equals("-m")) {
                 if (i + 1 < args.length) {
                     parsed.modelName = args[++i];
@@ -469,10 +4165,73 @@ public class DmnExecutor {
                 if (i + 1 < args.length) {
                     parsed.serviceName = args[++i];
                 }
+            } else if (arg.equals("--parallel")) {
+                if (i + 1 < args.length) {
+                    parsed.parallel = intOption("--parallel", args[++i], 1);
+                }
+            } else if (arg.equals("--result-cache")) {
+                if (i + 1 < args.length) {
+                    parsed.resultCacheSize = intOption("--result-cache", args[++i], 0);
+                }
+            } else if (arg.equals("--result-cache-ttl")) {
+                if (i + 1 < args.length) {
+                    parsed.resultCacheTtl = intOption("--result-cache-ttl", args[++i], 0);
+                }
+            } else if (arg.equals("--format")) {
+                if (i + 1 < args.length) {
+                    parsed.format = args[++i].toLowerCase();
+                }
+            } else if (arg.equals("--unordered")) {
+                parsed.ordered = false;
+            } else if (arg.equals("--iterations")) {
+                if (i + 1 < args.length) {
+                    parsed.iterations = intOption("--iterations", args[++i], 1);
+                }
+            } else if (arg.equals("--warmup")) {
+                if (i + 1 < args.length) {
+                    parsed.warmup = intOption("--warmup", args[++i], 0);
+                }
+            } else if (arg.equals("--loops")) {
+                if (i + 1 < args.length) {
+                    parsed.loops = intOption("--loops", args[++i], 1);
+                }
+            } else if (arg.equals("--rate")) {
+                if (i + 1 < args.length) {
+                    parsed.rate = rateOption(args[++i]);
+                }
+            } else if (arg.equals("--compare")) {
+                if (i + 1 < args.length) {
+                    parsed.compareDmnFile = args[++i];
+                }
+            } else if (arg.equals("--host")) {
+                if (i + 1 < args.length) {
+                    parsed.host = args[++i];
+                }
+            } else if (arg.equals("--port") || arg.equals("-p")) {
+                if (i + 1 < args.length) {
+                    parsed.port = intOption("--port", args[++i], 0);
+                }
+            } else if (arg.equals("--threads")) {
+                if (i + 1 < args.length) {
+                    parsed.threads = intOption("--threads", args[++i], 1);
+                }
+            } else if (arg.equals("--watch")) {
+                parsed.watch = true;
+            } else if (arg.equals("--registry")) {
+                if (i + 1 < args.length) {
+                    parsed.registryDir = args[++i];
+                }
+            } else if (arg.equals("--memory-budget")) {
+                if (i + 1 < args.length) {
+                    parsed.memoryBudget = (long) intOption("--memory-budget", args[++i], 0) << 20;
+                }
             } else if (parsed.mainDmnFile == null) {
                 parsed.mainDmnFile = arg;
-            } else if (parsed.inputJson.equals("{}")) {
-                if ("-".equals(arg)) {
+            } else if (parsed.inputJson.equals("{}") && parsed.inputFile == null) {
+                if (STREAMING_COMMANDS.contains(args[0])) {
+                    // Streaming commands read their input lazily, record by record
+                    parsed.inputFile = arg;
+                } else if ("-".equals(arg)) {
                     parsed.inputJson = new String(System.in.readAllBytes());
                 } else {
                     parsed.inputJson = arg;
@@ -482,10 +4241,45 @@ public class DmnExecutor {
             }
             i++;
         }
+
+        // Only info output can be cached (see ModelCache)
+        if (parsed.cacheDir != null && !args[0].equals("info")) {
+            System.err.println("Error: --cache and --cache-dir apply to the info command only");
+            System.exit(1);
+        }
         
         return parsed;
     }
 
+    // Numeric option value, exiting with a usage error when it is not a number or below min
+    private static int intOption(String name, String value, int min) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed >= min) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println("Error: " + name + " must be an integer of at least " + min + ", got '" + value + "'");
+        System.exit(1);
+        return min;
+    }
+
+    private static double rateOption(String value) {
+        try {
+            double rate = Double.parseDouble(value);
+            if (rate >= 0 && Double.isFinite(rate)) {
+                return rate;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        System.err.println("Error: --rate must be a number of evaluations per second (0: as fast as possible), got '" + value + "'");
+        System.exit(1);
+        return 0;
+    }
+
     private static void printUsage() {
         System.out.println("""
             DMN Executor - Execute DMN 1.5 decision models using Apache KIE 10.1
@@ -495,18 +4289,32 @@ public class DmnExecutor {
             Usage:
               DmnExecutor.java execute <dmn-file> [input-json] [options]
               DmnExecutor.java service <dmn-file> [input-json] --service <name> [options]
+              DmnExecutor.java batch <dmn-file> [input-ndjson|input-csv] [options]
+              DmnExecutor.java session <dmn-file> [updates-ndjson] [options]
               DmnExecutor.java info <dmn-file> [options]
+              DmnExecutor.java serve <dmn-file> [options]
+              DmnExecutor.java serve --registry <dir> [--memory-budget <mb>] [options]
+              DmnExecutor.java bench [dmn-file] [input-ndjson] [options]
+              DmnExecutor.java replay <dmn-file> <input-ndjson> [--rate <n>] [--compare <dmn-file>] [options]
               DmnExecutor.java help
             
             Commands:
               execute    Execute a DMN model (all decisions or specific decision/service)
               service    Execute a specific Decision Service (requires --service)
+              batch      Evaluate newline-delimited JSON records, one NDJSON result per line
+              session    Apply partial input updates to one case, re-evaluating only affected decisions
               info       Show model info including decisions, services, types, BKMs
+              bench      Measure compile time, throughput, latency and allocation per evaluation
+              replay     Replay recorded inputs at a target rate; report latency percentiles, errors, GC
+              serve      Compile once and serve evaluations over HTTP (POST /execute, /service; GET /info, /metrics)
               help       Show this help message
             
             Arguments:
               dmn-file      Path to the main DMN file
               input-json    JSON object with input values (use "-" for stdin)
+              input-ndjson  File with one JSON object per line (default or "-": stdin)
+              input-csv     CSV file whose header names inputs ("Amount", "Customer.age")
+              updates-ndjson  Partial input objects, one per line, merged into the session (default: stdin)
             
             Options:
               -s, --service <name>   Execute a Decision Service by name
@@ -515,6 +4323,40 @@ public class DmnExecutor {
               -i, --import <path>    Add DMN file or directory to import
               --no-auto-import       Disable auto-importing from same directory
               --no-typecheck         Disable DMN runtime input type checking
+              --profile              Report per-node evaluation counts, timings and matched rules
+              --compact              Print the result as a single line instead of pretty-printed
+              --compile              Compile FEEL expressions to Java bytecode instead of interpreting
+              --no-index             Match large decision tables by scanning every rule (no rule index)
+              --cache                info: cache model metadata in ~/.cache/dmn-executor
+              --cache-dir <dir>      info: cache model metadata in the given directory
+            
+            Serve Options:
+              --host <host>          Address to bind (default: 127.0.0.1)
+              -p, --port <port>      Port to listen on (default: 8080)
+              --threads <n>          Worker threads (default: available processors)
+              --watch                Recompile on model file changes; swap in only error-free builds
+              --registry <dir>       Serve every .dmn file under dir, compiled on first request:
+                                     POST /models/<id>/execute, /service; GET /models/<id>/info, /models
+                                     (<id>: path relative to dir without .dmn, e.g. acme/loan/v2)
+              --memory-budget <mb>   Evict least recently used registry models above this estimated heap size
+            
+            Bench Options:
+              --iterations <n>       Measured evaluations per target (default: 10000)
+              --warmup <n>           Unmeasured warm-up evaluations per target (default: 2000)
+            
+            Replay Options (also --parallel, --warmup, -d, -s):
+              --rate <n>             Start n evaluations per second (default: as fast as possible);
+                                     latency then counts from each evaluation's scheduled start
+              --loops <n>            Passes over the recorded inputs (default: 1)
+              --compare <dmn-file>   Replay a second model version too and diff decision results
+            
+            Batch Options:
+              --parallel <n>         Evaluate records on n worker threads (default: 1)
+              --unordered            Write results as they complete instead of in input order
+              --result-cache <n>     Memoize up to n decision/service results (also for serve)
+              --result-cache-ttl <s> Expire memoized results after s seconds (default: never)
+              --format <ndjson|csv>  Input format (default: csv for *.csv files, else ndjson);
+                                     CSV rows are echoed with decision result columns appended
             
             Decision Services:
               Decision Services encapsulate a subset of decisions, exposing only
@@ -535,6 +4377,28 @@ public class DmnExecutor {
               
               # Execute with stdin
               echo '{"age": 25}' | jbang DmnExecutor.java execute model.dmn -
+              
+              # Evaluate one record per line through a single runtime
+              jbang DmnExecutor.java batch model.dmn records.ndjson --decision Price > results.ndjson
+              jbang DmnExecutor.java batch model.dmn records.ndjson --parallel 8 > results.ndjson
+              jbang DmnExecutor.java batch model.dmn applicants.csv -d Price > scored.csv
+              
+              # What-if: change one input at a time, re-evaluating only what depends on it
+              printf '%s\\n' '{"x": 10, "y": 1}' '{"y": 2}' | jbang DmnExecutor.java session model.dmn
+              
+              # Benchmark a model against sample inputs (defaults to the bundled assets/greeting.dmn)
+              jbang DmnExecutor.java bench model.dmn samples.ndjson --iterations 50000
+              
+              # Check a changed model at 500 evaluations/s on 4 workers against the current one
+              jbang DmnExecutor.java replay model-v2.dmn recorded.ndjson --rate 500 --parallel 4 --compare model-v1.dmn
+              
+              # Serve the compiled model and evaluate over HTTP
+              jbang DmnExecutor.java serve model.dmn --port 8080 --watch
+              curl -d '{"x": 10}' 'http://127.0.0.1:8080/execute?decision=Price'
+              
+              # Serve many tenants' models from one process within a heap budget
+              jbang DmnExecutor.java serve --registry models/ --memory-budget 1024
+              curl -d '{"x": 10}' 'http://127.0.0.1:8080/models/acme/loan/v2/execute'
             """);
     }
 }